@@ -42,7 +42,8 @@ public class JavaQuery
     String resultString;
     String columnsString;
     String nodeResult;
-    String rows = "";
+    String rows;
+    String streamedRows;
 
     public static void main( String[] args )
     {
@@ -70,15 +71,17 @@ public class JavaQuery
         try ( Transaction tx = db.beginTx();
               Result result = tx.execute( "MATCH (n {name: 'my node'}) RETURN n, n.name" ) )
         {
+            StringBuilder output = new StringBuilder();
             while ( result.hasNext() )
             {
                 Map<String,Object> row = result.next();
                 for ( Entry<String,Object> column : row.entrySet() )
                 {
-                    rows += column.getKey() + ": " + column.getValue() + "; ";
+                    output.append( column.getKey() ).append( ": " ).append( column.getValue() ).append( "; " );
                 }
-                rows += "\n";
+                output.append( '\n' );
             }
+            rows = output.toString();
         }
         // end::execute[]
         // the result is now empty, get a new one
@@ -94,7 +97,22 @@ public class JavaQuery
             List<String> columns = result.columns();
             // end::columns[]
             columnsString = columns.toString();
-            resultString = tx.execute( "MATCH (n {name: 'my node'}) RETURN n, n.name" ).resultAsString();
+        }
+        try ( Transaction tx = db.beginTx();
+              Result result = tx.execute( "MATCH (n {name: 'my node'}) RETURN n, n.name" ) )
+        {
+            // tag::stream[]
+            StringBuilder streamed = new StringBuilder();
+            ResultStreaming.TextTable table = new ResultStreaming.TextTable( result.columns() );
+            ResultStreaming.stream( result, ResultStreaming.both( table, row ->
+            {
+                Node node = row.getNode( 0 );
+                streamed.append( node.getId() ).append( ": " ).append( row.getString( 1 ) ).append( '\n' );
+                return true;
+            } ) );
+            resultString = table.render( result.getQueryStatistics() );
+            // end::stream[]
+            streamedRows = streamed.toString();
         }
 
         managementService.shutdown();
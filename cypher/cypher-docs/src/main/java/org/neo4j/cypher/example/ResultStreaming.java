@@ -0,0 +1,385 @@
+/*
+ * Copyright (c) "Neo4j"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.example;
+
+import java.lang.reflect.Array;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.neo4j.graphdb.Entity;
+import org.neo4j.graphdb.Node;
+import org.neo4j.graphdb.Path;
+import org.neo4j.graphdb.QueryStatistics;
+import org.neo4j.graphdb.Relationship;
+import org.neo4j.graphdb.Result;
+
+/**
+ * Consumes a {@link Result} row by row through {@link Result#accept(Result.ResultVisitor)}, reading columns by their
+ * index in {@link Result#columns()}.
+ * <p>
+ * This is a convenience on top of the public API, not a cheaper way to read a result. The engine still builds a
+ * map-backed {@link Result.ResultRow} for every record, and every accessor maps its index back to the column name and
+ * reads the value by name from that row. What it does save is executions: visitors can be combined with
+ * {@link #both(RowVisitor, RowVisitor)}, for example to read typed values and fill a {@link TextTable} in the same
+ * pass, instead of executing the query again for {@link Result#resultAsString()}.
+ */
+public final class ResultStreaming
+{
+    private ResultStreaming()
+    {
+    }
+
+    @FunctionalInterface
+    public interface RowVisitor<E extends Exception>
+    {
+        /**
+         * @param row the current row. It is only valid during this call, and the same instance is passed for every row.
+         * @return {@code true} to continue with the next row, {@code false} to stop.
+         */
+        boolean visit( Row row ) throws E;
+    }
+
+    /**
+     * Visits the rows of {@code result} until they run out or the visitor returns {@code false}.
+     *
+     * @return the number of rows visited.
+     */
+    public static <E extends Exception> long stream( Result result, RowVisitor<E> visitor ) throws E
+    {
+        Row row = new Row( result.columns() );
+        result.accept( resultRow ->
+        {
+            row.current = resultRow;
+            row.rowNumber++;
+            return visitor.visit( row );
+        } );
+        return row.rowNumber;
+    }
+
+    /**
+     * @return a visitor that passes every row to {@code first} and then to {@code second}, and continues as long as both do.
+     */
+    public static <E extends Exception> RowVisitor<E> both( RowVisitor<? extends E> first, RowVisitor<? extends E> second )
+    {
+        return row -> first.visit( row ) & second.visit( row );
+    }
+
+    /**
+     * A row whose columns are read by their index in {@link Result#columns()}. The index is turned into the column name,
+     * and the value is read by that name from the row the engine passed to the visitor.
+     */
+    public static final class Row
+    {
+        private final String[] columns;
+        private Result.ResultRow current;
+        private long rowNumber;
+
+        private Row( List<String> columns )
+        {
+            this.columns = columns.toArray( new String[0] );
+        }
+
+        public int columnCount()
+        {
+            return columns.length;
+        }
+
+        public String column( int index )
+        {
+            return columns[index];
+        }
+
+        /**
+         * @return the number of this row, starting from 1.
+         */
+        public long rowNumber()
+        {
+            return rowNumber;
+        }
+
+        public Object get( int index )
+        {
+            return current.get( columns[index] );
+        }
+
+        public Node getNode( int index )
+        {
+            return current.getNode( columns[index] );
+        }
+
+        public Relationship getRelationship( int index )
+        {
+            return current.getRelationship( columns[index] );
+        }
+
+        public Path getPath( int index )
+        {
+            return current.getPath( columns[index] );
+        }
+
+        public String getString( int index )
+        {
+            return current.getString( columns[index] );
+        }
+
+        public Number getNumber( int index )
+        {
+            return current.getNumber( columns[index] );
+        }
+
+        public Boolean getBoolean( int index )
+        {
+            return current.getBoolean( columns[index] );
+        }
+
+        /**
+         * @throws NullPointerException if the value is null.
+         */
+        public long getLong( int index )
+        {
+            return current.getNumber( columns[index] ).longValue();
+        }
+
+        /**
+         * @throws NullPointerException if the value is null.
+         */
+        public double getDouble( int index )
+        {
+            return current.getNumber( columns[index] ).doubleValue();
+        }
+    }
+
+    /**
+     * Collects the visited rows as text and renders them in the table layout of {@link Result#resultAsString()}.
+     * Only the cell text of each row is kept. Properties and map entries are written in the order they are read, as
+     * {@link Result#resultAsString()} does.
+     */
+    public static final class TextTable implements RowVisitor<RuntimeException>
+    {
+        private final String[] columns;
+        private final int[] widths;
+        private final List<String[]> rows = new ArrayList<>();
+
+        public TextTable( List<String> columns )
+        {
+            this.columns = columns.toArray( new String[0] );
+            this.widths = new int[this.columns.length];
+            for ( int i = 0; i < widths.length; i++ )
+            {
+                widths[i] = this.columns[i].length();
+            }
+        }
+
+        @Override
+        public boolean visit( Row row )
+        {
+            String[] cells = new String[columns.length];
+            for ( int i = 0; i < cells.length; i++ )
+            {
+                cells[i] = format( row.get( i ) );
+                widths[i] = Math.max( widths[i], cells[i].length() );
+            }
+            rows.add( cells );
+            return true;
+        }
+
+        public int rowCount()
+        {
+            return rows.size();
+        }
+
+        /**
+         * @param statistics appended when they contain updates, like {@link Result#resultAsString()} does.
+         */
+        public String render( QueryStatistics statistics )
+        {
+            StringBuilder table = new StringBuilder();
+            if ( columns.length == 0 )
+            {
+                String message = statistics != null && statistics.containsUpdates()
+                                 ? "No data returned."
+                                 : "No data returned, and nothing was changed.";
+                appendLine( table, message.length() + 2 );
+                table.append( "| " ).append( message ).append( " |" ).append( System.lineSeparator() );
+                appendLine( table, message.length() + 2 );
+            }
+            else
+            {
+                int lineWidth = columns.length * 3 - 1;
+                for ( int width : widths )
+                {
+                    lineWidth += width;
+                }
+                appendLine( table, lineWidth );
+                appendRow( table, columns );
+                appendLine( table, lineWidth );
+                for ( String[] row : rows )
+                {
+                    appendRow( table, row );
+                }
+                appendLine( table, lineWidth );
+                table.append( rows.size() ).append( rows.size() == 1 ? " row" : " rows" ).append( System.lineSeparator() );
+            }
+            if ( statistics != null && statistics.containsUpdates() )
+            {
+                table.append( statistics );
+            }
+            return table.toString();
+        }
+
+        @Override
+        public String toString()
+        {
+            return render( null );
+        }
+
+        private void appendRow( StringBuilder table, String[] cells )
+        {
+            table.append( "| " );
+            for ( int i = 0; i < cells.length; i++ )
+            {
+                if ( i > 0 )
+                {
+                    table.append( " | " );
+                }
+                table.append( cells[i] );
+                for ( int pad = cells[i].length(); pad < widths[i]; pad++ )
+                {
+                    table.append( ' ' );
+                }
+            }
+            table.append( " |" ).append( System.lineSeparator() );
+        }
+
+        private static void appendLine( StringBuilder table, int width )
+        {
+            table.append( '+' );
+            for ( int i = 0; i < width; i++ )
+            {
+                table.append( '-' );
+            }
+            table.append( '+' ).append( System.lineSeparator() );
+        }
+
+        static String format( Object value )
+        {
+            StringBuilder text = new StringBuilder();
+            format( text, value );
+            return text.toString();
+        }
+
+        private static void format( StringBuilder text, Object value )
+        {
+            if ( value == null )
+            {
+                text.append( "NULL" );
+            }
+            else if ( value instanceof String )
+            {
+                text.append( '"' ).append( value ).append( '"' );
+            }
+            else if ( value instanceof Node )
+            {
+                Node node = (Node) value;
+                text.append( "Node[" ).append( node.getId() ).append( ']' );
+                formatProperties( text, node );
+            }
+            else if ( value instanceof Relationship )
+            {
+                Relationship relationship = (Relationship) value;
+                text.append( ':' ).append( relationship.getType().name() ).append( '[' ).append( relationship.getId() ).append( ']' );
+                formatProperties( text, relationship );
+            }
+            else if ( value instanceof Path )
+            {
+                formatPath( text, (Path) value );
+            }
+            else if ( value instanceof Map<?,?> )
+            {
+                text.append( '{' );
+                String separator = "";
+                for ( Map.Entry<?,?> entry : ((Map<?,?>) value).entrySet() )
+                {
+                    text.append( separator ).append( entry.getKey() ).append( ':' );
+                    format( text, entry.getValue() );
+                    separator = ",";
+                }
+                text.append( '}' );
+            }
+            else if ( value instanceof Iterable<?> )
+            {
+                text.append( '[' );
+                String separator = "";
+                for ( Object element : (Iterable<?>) value )
+                {
+                    text.append( separator );
+                    format( text, element );
+                    separator = ",";
+                }
+                text.append( ']' );
+            }
+            else if ( value.getClass().isArray() )
+            {
+                text.append( '[' );
+                for ( int i = 0, length = Array.getLength( value ); i < length; i++ )
+                {
+                    if ( i > 0 )
+                    {
+                        text.append( ',' );
+                    }
+                    format( text, Array.get( value, i ) );
+                }
+                text.append( ']' );
+            }
+            else
+            {
+                text.append( value );
+            }
+        }
+
+        private static void formatProperties( StringBuilder text, Entity entity )
+        {
+            text.append( '{' );
+            String separator = "";
+            for ( String key : entity.getPropertyKeys() )
+            {
+                text.append( separator ).append( key ).append( ':' );
+                format( text, entity.getProperty( key ) );
+                separator = ",";
+            }
+            text.append( '}' );
+        }
+
+        private static void formatPath( StringBuilder text, Path path )
+        {
+            Node previous = path.startNode();
+            text.append( '(' ).append( previous.getId() ).append( ')' );
+            for ( Relationship relationship : path.relationships() )
+            {
+                boolean outgoing = relationship.getStartNodeId() == previous.getId();
+                text.append( outgoing ? "-[" : "<-[" ).append( relationship.getType().name() ).append( ',' ).append( relationship.getId() )
+                        .append( outgoing ? "]->" : "]-" );
+                previous = relationship.getOtherNode( previous );
+                text.append( '(' ).append( previous.getId() ).append( ')' );
+            }
+        }
+    }
+}
@@ -0,0 +1,172 @@
+/*
+ * Copyright (c) "Neo4j"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.function.example;
+
+import java.util.List;
+
+import org.neo4j.procedure.Description;
+import org.neo4j.procedure.Name;
+import org.neo4j.procedure.UserAggregationFunction;
+import org.neo4j.procedure.UserAggregationResult;
+import org.neo4j.procedure.UserAggregationUpdate;
+
+/**
+ * Variants of {@link LongestString} and {@link JoinFunction} that are invoked once per chunk of strings instead of
+ * once per string, for example with chunks built by {@code collect} over a bucketing key. This saves one function
+ * call, with its argument conversion, per row, and {@code join} no longer needs the whole list collected up front.
+ * <p>
+ * The aggregation states can also be used directly. Partial states built over parts of the input in parallel can be
+ * combined with {@code merge}, which gives the same result as aggregating the parts one after the other.
+ */
+public class ChunkedStringAggregation
+{
+    @UserAggregationFunction
+    @Description( "org.neo4j.function.example.longestStringInChunks(strings) - aggregates the longest string found in lists of strings" )
+    public LongestStringState longestStringInChunks()
+    {
+        return new LongestStringState();
+    }
+
+    @UserAggregationFunction
+    @Description( "org.neo4j.function.example.joinChunks(strings, delimiter) - joins all strings in lists of strings with the given delimiter" )
+    public JoinState joinChunks()
+    {
+        return new JoinState();
+    }
+
+    public static class LongestStringState
+    {
+        private String longestString;
+
+        @UserAggregationUpdate
+        public void update( @Name( "strings" ) List<String> strings )
+        {
+            if ( strings == null )
+            {
+                return;
+            }
+            // Compare lengths against a local, rather than going through the field for every string
+            String longest = longestString;
+            int length = longest == null ? 0 : longest.length();
+            for ( int i = 0, size = strings.size(); i < size; i++ )
+            {
+                String string = strings.get( i );
+                if ( string != null && string.length() > length )
+                {
+                    longest = string;
+                    length = string.length();
+                }
+            }
+            longestString = longest;
+        }
+
+        /**
+         * Adds what {@code later} has seen, as if its strings came after the ones seen by this state.
+         * Like {@link LongestString}, the first of several strings of the same length wins.
+         */
+        public LongestStringState merge( LongestStringState later )
+        {
+            String other = later.longestString;
+            if ( other != null && other.length() > (longestString == null ? 0 : longestString.length()) )
+            {
+                longestString = other;
+            }
+            return this;
+        }
+
+        @UserAggregationResult
+        public String result()
+        {
+            return longestString;
+        }
+    }
+
+    public static class JoinState
+    {
+        private final StringBuilder joined = new StringBuilder();
+        private boolean started;
+        private boolean empty = true;
+        private String delimiter;
+
+        /**
+         * Null strings are skipped, as {@code collect} would skip them. The delimiter of the first chunk is used
+         * throughout, and if it is null so is the result.
+         */
+        @UserAggregationUpdate
+        public void update( @Name( "strings" ) List<String> strings, @Name( "delimiter" ) String delimiter )
+        {
+            if ( !started )
+            {
+                started = true;
+                this.delimiter = delimiter;
+            }
+            if ( strings == null || this.delimiter == null )
+            {
+                return;
+            }
+            for ( int i = 0, size = strings.size(); i < size; i++ )
+            {
+                String string = strings.get( i );
+                if ( string != null )
+                {
+                    if ( !empty )
+                    {
+                        joined.append( this.delimiter );
+                    }
+                    joined.append( string );
+                    empty = false;
+                }
+            }
+        }
+
+        /**
+         * Appends what {@code later} has joined, as if its strings came after the ones seen by this state.
+         * Both states are expected to have been given the same delimiter.
+         */
+        public JoinState merge( JoinState later )
+        {
+            if ( !later.started )
+            {
+                return this;
+            }
+            if ( !started )
+            {
+                started = true;
+                delimiter = later.delimiter;
+            }
+            if ( delimiter != null && !later.empty )
+            {
+                if ( !empty )
+                {
+                    joined.append( delimiter );
+                }
+                joined.append( later.joined );
+                empty = false;
+            }
+            return this;
+        }
+
+        @UserAggregationResult
+        public String result()
+        {
+            return started && delimiter == null ? null : joined.toString();
+        }
+    }
+}
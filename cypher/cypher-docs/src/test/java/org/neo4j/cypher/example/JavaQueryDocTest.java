@@ -46,6 +46,7 @@ public class JavaQueryDocTest
         assertTrue( jq.rows.contains( "n.name: my node; " ) );
         assertTrue( jq.rows.contains( "Node[" ) );
         assertTrue( jq.rows.contains( "];" ) );
+        assertTrue( jq.streamedRows.contains( ": my node" ) );
 
         gen.saveToFile( "result", AsciidocHelper.createOutputSnippet( jq.resultString ) );
         gen.saveToFile( "columns", AsciidocHelper.createOutputSnippet( jq.columnsString ) );
@@ -0,0 +1,125 @@
+/*
+ * Copyright (c) "Neo4j"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.example;
+
+import java.io.File;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.util.Map;
+
+import org.neo4j.dbms.api.DatabaseManagementService;
+import org.neo4j.dbms.api.DatabaseManagementServiceBuilder;
+import org.neo4j.graphdb.GraphDatabaseService;
+import org.neo4j.graphdb.Result;
+import org.neo4j.graphdb.Transaction;
+
+import static org.apache.commons.io.FileUtils.deleteQuietly;
+import static org.neo4j.configuration.GraphDatabaseSettings.DEFAULT_DATABASE_NAME;
+
+/**
+ * Compares reading a large result as one {@code Map} per row, the way {@link JavaQuery} does, with
+ * {@link ResultStreaming#stream(Result, ResultStreaming.RowVisitor)}. Both read every column of every row and
+ * sum up a value so the work cannot be skipped. Reports rows per second and bytes allocated per row.
+ * <p>
+ * The engine builds a map for every row on both paths, so this shows what the visitor and the index to name lookups
+ * cost next to plain iteration, not an allocation saving.
+ * <p>
+ * Usage: {@code ResultStreamingBenchmark [rows] [rounds]}
+ */
+public class ResultStreamingBenchmark
+{
+    private static final String QUERY = "UNWIND range(1, $rows) AS i RETURN i, 'name' + i AS name, i * 0.5 AS half, i % 2 = 0 AS even";
+
+    public static void main( String[] args ) throws Exception
+    {
+        int rows = args.length > 0 ? Integer.parseInt( args[0] ) : 1_000_000;
+        int rounds = args.length > 1 ? Integer.parseInt( args[1] ) : 5;
+
+        File directory = Files.createTempDirectory( "result-streaming-benchmark" ).toFile();
+        DatabaseManagementService managementService = new DatabaseManagementServiceBuilder( directory ).build();
+        try
+        {
+            GraphDatabaseService graphDb = managementService.database( DEFAULT_DATABASE_NAME );
+            Map<String, Object> parameters = Map.of( "rows", rows );
+            for ( int round = 1; round <= rounds; round++ )
+            {
+                System.out.println( String.format( "round %d, %d rows", round, rows ) );
+                measure( graphDb, parameters, "map per row", ResultStreamingBenchmark::mapPerRow );
+                measure( graphDb, parameters, "streamed", ResultStreamingBenchmark::streamed );
+            }
+        }
+        finally
+        {
+            managementService.shutdown();
+            deleteQuietly( directory );
+        }
+    }
+
+    private static long mapPerRow( Result result )
+    {
+        long sum = 0;
+        while ( result.hasNext() )
+        {
+            Map<String, Object> row = result.next();
+            sum += ((Number) row.get( "i" )).longValue();
+            sum += ((String) row.get( "name" )).length();
+            sum += (long) ((Number) row.get( "half" )).doubleValue();
+            sum += (Boolean) row.get( "even" ) ? 1 : 0;
+        }
+        return sum;
+    }
+
+    private static long streamed( Result result )
+    {
+        long[] sum = new long[1];
+        ResultStreaming.stream( result, row ->
+        {
+            sum[0] += row.getLong( 0 );
+            sum[0] += row.getString( 1 ).length();
+            sum[0] += (long) row.getDouble( 2 );
+            sum[0] += row.getBoolean( 3 ) ? 1 : 0;
+            return true;
+        } );
+        return sum[0];
+    }
+
+    private static void measure( GraphDatabaseService graphDb, Map<String, Object> parameters, String name, ResultConsumer consumer )
+    {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long thread = Thread.currentThread().getId();
+        int rows = (Integer) parameters.get( "rows" );
+        try ( Transaction tx = graphDb.beginTx();
+              Result result = tx.execute( QUERY, parameters ) )
+        {
+            long allocatedBefore = threads.getThreadAllocatedBytes( thread );
+            long start = System.nanoTime();
+            long checksum = consumer.consume( result );
+            long elapsed = System.nanoTime() - start;
+            long allocated = threads.getThreadAllocatedBytes( thread ) - allocatedBefore;
+            System.out.println( String.format( "  %-12s %12.0f rows/s %10.1f bytes/row   checksum %d", name, rows * 1e9 / elapsed,
+                    allocated / (double) rows, checksum ) );
+        }
+    }
+
+    private interface ResultConsumer
+    {
+        long consume( Result result );
+    }
+}
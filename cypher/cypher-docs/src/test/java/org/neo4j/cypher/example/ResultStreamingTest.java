@@ -0,0 +1,147 @@
+/*
+ * Copyright (c) "Neo4j"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.example;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.neo4j.dbms.api.DatabaseManagementService;
+import org.neo4j.graphdb.GraphDatabaseService;
+import org.neo4j.graphdb.Result;
+import org.neo4j.graphdb.Transaction;
+import org.neo4j.test.TestDatabaseManagementServiceBuilder;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.neo4j.configuration.GraphDatabaseSettings.DEFAULT_DATABASE_NAME;
+
+public class ResultStreamingTest
+{
+    private static DatabaseManagementService managementService;
+    private static GraphDatabaseService graphDb;
+
+    @BeforeClass
+    public static void startDatabase()
+    {
+        managementService = new TestDatabaseManagementServiceBuilder().impermanent().build();
+        graphDb = managementService.database( DEFAULT_DATABASE_NAME );
+    }
+
+    @AfterClass
+    public static void stopDatabase()
+    {
+        managementService.shutdown();
+    }
+
+    @Test
+    public void shouldReadColumnsByIndexFromOneReusedRow()
+    {
+        List<String> seen = new ArrayList<>();
+        try ( Transaction tx = graphDb.beginTx();
+              Result result = tx.execute( "UNWIND range(1, 3) AS i RETURN i, 'n' + i AS name, i * 0.5 AS half" ) )
+        {
+            long rows = ResultStreaming.stream( result, row ->
+            {
+                assertEquals( "name", row.column( 1 ) );
+                seen.add( row.rowNumber() + ":" + row.getLong( 0 ) + ":" + row.getString( 1 ) + ":" + row.getDouble( 2 ) );
+                return true;
+            } );
+
+            assertEquals( 3, rows );
+        }
+        assertEquals( List.of( "1:1:n1:0.5", "2:2:n2:1.0", "3:3:n3:1.5" ), seen );
+    }
+
+    @Test
+    public void shouldStopWhenTheVisitorSaysSo()
+    {
+        try ( Transaction tx = graphDb.beginTx();
+              Result result = tx.execute( "UNWIND range(1, 100) AS i RETURN i" ) )
+        {
+            assertEquals( 5, ResultStreaming.stream( result, row -> row.getLong( 0 ) < 5 ) );
+        }
+    }
+
+    @Test
+    public void shouldRenderTheSameTableAsResultAsString()
+    {
+        String query = "UNWIND [1, 22, 333] AS i RETURN i, 'value ' + i AS text, CASE i WHEN 22 THEN null ELSE [i, true] END AS list";
+        List<Long> numbers = new ArrayList<>();
+        try ( Transaction tx = graphDb.beginTx() )
+        {
+            assertRendersLikeResultAsString( tx, query, row -> numbers.add( row.getLong( 0 ) ) );
+        }
+        assertEquals( List.of( 1L, 22L, 333L ), numbers );
+    }
+
+    @Test
+    public void shouldRenderNodesRelationshipsPathsAndMapsLikeResultAsString()
+    {
+        try ( Transaction tx = graphDb.beginTx() )
+        {
+            tx.execute( "CREATE (:Person {name: 'Anna', age: 31})-[:KNOWS {since: 2001}]->(:Person {name: 'Bob'})" ).close();
+
+            assertRendersLikeResultAsString( tx, "MATCH p = (a:Person {name: 'Anna'})-[r:KNOWS]->(b) MATCH q = (b)<-[:KNOWS]-(a) " +
+                    "RETURN a, r, p, q, {friend: b} AS map, [r, {since: r.since}] AS list", row -> true );
+        }
+    }
+
+    @Test
+    public void shouldRenderUpdatesWithoutColumnsLikeResultAsString()
+    {
+        try ( Transaction tx = graphDb.beginTx() )
+        {
+            assertRendersLikeResultAsString( tx, "CREATE (:Thing {name: 'thing'})", row -> true );
+        }
+    }
+
+    @Test
+    public void shouldRenderNodesWithTheirProperties()
+    {
+        try ( Transaction tx = graphDb.beginTx();
+              Result result = tx.execute( "CREATE (n:Person {name: 'Alice', age: 42}) RETURN n" ) )
+        {
+            ResultStreaming.TextTable table = new ResultStreaming.TextTable( result.columns() );
+            ResultStreaming.stream( result, table );
+            String rendered = table.render( result.getQueryStatistics() );
+
+            assertTrue( rendered, rendered.contains( "age:42" ) );
+            assertTrue( rendered, rendered.contains( "name:\"Alice\"" ) );
+            assertTrue( rendered, rendered.contains( "1 row" ) );
+            assertTrue( rendered, rendered.contains( "Nodes created: 1" ) );
+        }
+    }
+
+    private static void assertRendersLikeResultAsString( Transaction tx, String query, ResultStreaming.RowVisitor<RuntimeException> reader )
+    {
+        String expected = tx.execute( query ).resultAsString();
+
+        try ( Result result = tx.execute( query ) )
+        {
+            ResultStreaming.TextTable table = new ResultStreaming.TextTable( result.columns() );
+            ResultStreaming.stream( result, ResultStreaming.both( table, reader ) );
+            assertEquals( expected, table.render( result.getQueryStatistics() ) );
+        }
+    }
+}
@@ -0,0 +1,183 @@
+/*
+ * Copyright (c) "Neo4j"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.function.example;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
+
+import org.neo4j.dbms.api.DatabaseManagementService;
+import org.neo4j.dbms.api.DatabaseManagementServiceBuilder;
+import org.neo4j.graphdb.GraphDatabaseService;
+import org.neo4j.graphdb.Transaction;
+import org.neo4j.kernel.api.procedure.GlobalProcedures;
+import org.neo4j.kernel.internal.GraphDatabaseAPI;
+
+import static org.apache.commons.io.FileUtils.deleteQuietly;
+import static org.neo4j.configuration.GraphDatabaseSettings.DEFAULT_DATABASE_NAME;
+
+/**
+ * Compares the per-row {@link LongestString} and {@link JoinFunction} examples with their chunked variants in
+ * {@link ChunkedStringAggregation}, reporting rows per second.
+ * <p>
+ * Through Cypher, the per-row functions are called once per row (or on one collected list, for join) while the
+ * chunked ones are called once per chunk. Directly in Java, the per-row aggregator is fed one string at a time and a
+ * chunked state is fed one chunk at a time, both on a single thread, so they differ only in batching. The merged run
+ * then aggregates partitions on all cores and merges them afterwards, to show what parallelism adds on top.
+ * <p>
+ * Usage: {@code ChunkedStringAggregationBenchmark [rows] [chunkSize] [rounds]}
+ */
+public class ChunkedStringAggregationBenchmark
+{
+    public static void main( String[] args ) throws Exception
+    {
+        int chunkSize = args.length > 1 ? Integer.parseInt( args[1] ) : 1000;
+        int rows = (args.length > 0 ? Integer.parseInt( args[0] ) : 2_000_000) / chunkSize * chunkSize;
+        int rounds = args.length > 2 ? Integer.parseInt( args[2] ) : 5;
+
+        File directory = Files.createTempDirectory( "chunked-string-aggregation-benchmark" ).toFile();
+        DatabaseManagementService managementService = new DatabaseManagementServiceBuilder( directory ).build();
+        try
+        {
+            GraphDatabaseService graphDb = managementService.database( DEFAULT_DATABASE_NAME );
+            GlobalProcedures procedures = ((GraphDatabaseAPI) graphDb).getDependencyResolver().resolveDependency( GlobalProcedures.class );
+            procedures.registerFunction( JoinFunction.class );
+            procedures.registerAggregationFunction( LongestString.class );
+            procedures.registerAggregationFunction( ChunkedStringAggregation.class );
+
+            Map<String, Object> parameters = Map.of( "rows", rows, "chunk", chunkSize );
+            String perRow = "UNWIND range(1, $rows) AS i WITH toString(i) AS s ";
+            String chunked = "UNWIND range(0, $rows / $chunk - 1) AS c WITH [i IN range(c * $chunk + 1, (c + 1) * $chunk) | toString(i)] AS chunk ";
+
+            for ( int round = 1; round <= rounds; round++ )
+            {
+                System.out.println( String.format( "round %d, %d rows, chunks of %d", round, rows, chunkSize ) );
+                cypher( graphDb, "longestString per row", rows, perRow + "RETURN org.neo4j.function.example.longestString(s) AS result", parameters );
+                cypher( graphDb, "longestString chunked", rows, chunked + "RETURN org.neo4j.function.example.longestStringInChunks(chunk) AS result",
+                        parameters );
+                cypher( graphDb, "join collected", rows, perRow + "RETURN org.neo4j.function.example.join(collect(s), ',') AS result", parameters );
+                cypher( graphDb, "join chunked", rows, chunked + "RETURN org.neo4j.function.example.joinChunks(chunk, ',') AS result", parameters );
+            }
+
+            String[] strings = new String[rows];
+            for ( int i = 0; i < rows; i++ )
+            {
+                strings[i] = Integer.toString( i + 1 );
+            }
+            int threads = Runtime.getRuntime().availableProcessors();
+            ExecutorService executor = Executors.newFixedThreadPool( threads );
+            try
+            {
+                for ( int round = 1; round <= rounds; round++ )
+                {
+                    System.out.println( String.format( "round %d, %d rows in Java, %d threads", round, rows, threads ) );
+                    direct( "longestString per row", rows, () ->
+                    {
+                        LongestString.LongStringAggregator aggregator = new LongestString().longestString();
+                        for ( String string : strings )
+                        {
+                            aggregator.findLongest( string );
+                        }
+                        return aggregator.result();
+                    } );
+                    direct( "longestString chunked", rows, () -> longestInChunks( strings, 0, strings.length, chunkSize ).result() );
+                    direct( "longestString merged", rows, () -> longestInParallel( executor, threads, strings, chunkSize ) );
+                }
+            }
+            finally
+            {
+                executor.shutdown();
+            }
+        }
+        finally
+        {
+            managementService.shutdown();
+            deleteQuietly( directory );
+        }
+    }
+
+    private static void cypher( GraphDatabaseService graphDb, String name, int rows, String query, Map<String, Object> parameters )
+    {
+        long start = System.nanoTime();
+        Object result;
+        try ( Transaction tx = graphDb.beginTx() )
+        {
+            result = tx.execute( query, parameters ).next().get( "result" );
+        }
+        report( name, rows, System.nanoTime() - start, result );
+    }
+
+    private static void direct( String name, int rows, Supplier<String> aggregation )
+    {
+        long start = System.nanoTime();
+        String result = aggregation.get();
+        report( name, rows, System.nanoTime() - start, result );
+    }
+
+    private static String longestInParallel( ExecutorService executor, int threads, String[] strings, int chunkSize )
+    {
+        int partitionSize = (strings.length + threads - 1) / threads;
+        List<Future<ChunkedStringAggregation.LongestStringState>> partials = new ArrayList<>( threads );
+        for ( int from = 0; from < strings.length; from += partitionSize )
+        {
+            int start = from;
+            int end = Math.min( strings.length, from + partitionSize );
+            partials.add( executor.submit( () -> longestInChunks( strings, start, end, chunkSize ) ) );
+        }
+        ChunkedStringAggregation.LongestStringState merged = new ChunkedStringAggregation.LongestStringState();
+        for ( Future<ChunkedStringAggregation.LongestStringState> partial : partials )
+        {
+            try
+            {
+                merged.merge( partial.get() );
+            }
+            catch ( Exception e )
+            {
+                throw new IllegalStateException( e );
+            }
+        }
+        return merged.result();
+    }
+
+    private static ChunkedStringAggregation.LongestStringState longestInChunks( String[] strings, int start, int end, int chunkSize )
+    {
+        ChunkedStringAggregation.LongestStringState state = new ChunkedStringAggregation.LongestStringState();
+        List<String> all = Arrays.asList( strings );
+        for ( int chunk = start; chunk < end; chunk += chunkSize )
+        {
+            state.update( all.subList( chunk, Math.min( end, chunk + chunkSize ) ) );
+        }
+        return state;
+    }
+
+    private static void report( String name, int rows, long nanos, Object result )
+    {
+        String shown = String.valueOf( result );
+        System.out.println( String.format( "  %-24s %12.0f rows/s   result %s", name, rows * 1e9 / nanos,
+                shown.length() > 20 ? shown.substring( 0, 20 ) + "... (" + shown.length() + " chars)" : shown ) );
+    }
+}
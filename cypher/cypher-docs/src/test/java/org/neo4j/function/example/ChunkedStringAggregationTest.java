@@ -0,0 +1,139 @@
+/*
+ * Copyright (c) "Neo4j"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.function.example;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import org.neo4j.dbms.api.DatabaseManagementService;
+import org.neo4j.graphdb.GraphDatabaseService;
+import org.neo4j.graphdb.Transaction;
+import org.neo4j.kernel.api.procedure.GlobalProcedures;
+import org.neo4j.kernel.internal.GraphDatabaseAPI;
+import org.neo4j.test.TestDatabaseManagementServiceBuilder;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.neo4j.configuration.GraphDatabaseSettings.DEFAULT_DATABASE_NAME;
+
+public class ChunkedStringAggregationTest
+{
+    private static DatabaseManagementService managementService;
+    private static GraphDatabaseService graphDb;
+
+    @BeforeClass
+    public static void startDatabase() throws Exception
+    {
+        managementService = new TestDatabaseManagementServiceBuilder().impermanent().build();
+        graphDb = managementService.database( DEFAULT_DATABASE_NAME );
+        GlobalProcedures procedures = ((GraphDatabaseAPI) graphDb).getDependencyResolver().resolveDependency( GlobalProcedures.class );
+        procedures.registerFunction( JoinFunction.class );
+        procedures.registerAggregationFunction( LongestString.class );
+        procedures.registerAggregationFunction( ChunkedStringAggregation.class );
+    }
+
+    @AfterClass
+    public static void stopDatabase()
+    {
+        managementService.shutdown();
+    }
+
+    @Test
+    public void shouldAgreeWithThePerRowFunctions()
+    {
+        String rows = "UNWIND ['John', 'Paul', null, 'George', 'Ringo', 'Stuart', 'Pete'] AS name ";
+        Map<String, Object> perRow = single( rows + "WITH collect(name) AS names " +
+                "UNWIND names AS name " +
+                "RETURN org.neo4j.function.example.longestString(name) AS longest, org.neo4j.function.example.join(names, '-') AS joined" );
+        Map<String, Object> chunked = single( rows + "WITH collect(name) AS names " +
+                "UNWIND [names[0..3], names[3..]] AS chunk " +
+                "RETURN org.neo4j.function.example.longestStringInChunks(chunk) AS longest, " +
+                "org.neo4j.function.example.joinChunks(chunk, '-') AS joined" );
+
+        assertEquals( perRow, chunked );
+    }
+
+    @Test
+    public void shouldMergePartialStatesAsIfAggregatedInOrder()
+    {
+        List<List<String>> parts = Arrays.asList(
+                Arrays.asList( "a", "bbb", null ),
+                Collections.emptyList(),
+                Arrays.asList( "ccc", "dd" ),
+                Arrays.asList( "eeee", "fff" ) );
+
+        ChunkedStringAggregation.LongestStringState longest = new ChunkedStringAggregation.LongestStringState();
+        ChunkedStringAggregation.JoinState joined = new ChunkedStringAggregation.JoinState();
+        for ( List<String> part : parts.subList( 0, 2 ) )
+        {
+            longest.update( part );
+            joined.update( part, "," );
+        }
+        for ( List<String> part : parts.subList( 2, 4 ) )
+        {
+            ChunkedStringAggregation.LongestStringState partialLongest = new ChunkedStringAggregation.LongestStringState();
+            partialLongest.update( part );
+            longest.merge( partialLongest );
+            ChunkedStringAggregation.JoinState partialJoined = new ChunkedStringAggregation.JoinState();
+            partialJoined.update( part, "," );
+            joined.merge( partialJoined );
+        }
+
+        assertEquals( "eeee", longest.result() );
+        assertEquals( "a,bbb,ccc,dd,eeee,fff", joined.result() );
+    }
+
+    @Test
+    public void shouldKeepTheFirstOfEquallyLongStringsWhenMerging()
+    {
+        ChunkedStringAggregation.LongestStringState first = new ChunkedStringAggregation.LongestStringState();
+        first.update( Arrays.asList( "abc", "def" ) );
+        ChunkedStringAggregation.LongestStringState second = new ChunkedStringAggregation.LongestStringState();
+        second.update( Collections.singletonList( "ghi" ) );
+
+        assertEquals( "abc", first.merge( second ).result() );
+        assertEquals( "ghi", second.merge( new ChunkedStringAggregation.LongestStringState() ).result() );
+    }
+
+    @Test
+    public void shouldHandleNoRowsAndNullDelimiters()
+    {
+        assertNull( new ChunkedStringAggregation.LongestStringState().result() );
+        assertEquals( "", new ChunkedStringAggregation.JoinState().result() );
+
+        ChunkedStringAggregation.JoinState withoutDelimiter = new ChunkedStringAggregation.JoinState();
+        withoutDelimiter.update( Arrays.asList( "a", "b" ), null );
+        assertNull( withoutDelimiter.result() );
+    }
+
+    private static Map<String, Object> single( String query )
+    {
+        try ( Transaction tx = graphDb.beginTx() )
+        {
+            return tx.execute( query ).next();
+        }
+    }
+}
@@ -19,7 +19,7 @@
  */
 package org.neo4j.cypher.docgen
 
-import java.io.{PrintWriter, File}
+import java.io.{BufferedWriter, File, FileOutputStream, OutputStreamWriter, PrintWriter}
 import java.nio.charset.StandardCharsets
 
 object CsvFile {
@@ -50,4 +50,18 @@ class CsvFile(fileName: String, delimiter: Char = ',')(implicit csvFilesDir: Fil
     writer.close()
     csvFile
   }
+
+  /**
+    * Writes the rows as they come, so files far larger than the heap can be generated.
+    */
+  def withRows(rows: Iterator[Seq[String]]): File = {
+    val csvFile = new File(csvFilesDir, fileName)
+    val writer = new PrintWriter(new BufferedWriter(new OutputStreamWriter(new FileOutputStream(csvFile), StandardCharsets.UTF_8), 1 << 16))
+    try {
+      rows.foreach(row => writer.println(row.mkString(delimiter.toString)))
+    } finally {
+      writer.close()
+    }
+    csvFile
+  }
 }
@@ -0,0 +1,87 @@
+/*
+ * Copyright (c) "Neo4j"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.docgen
+
+import java.io.File
+
+import org.apache.commons.io.FileUtils
+import org.neo4j.cypher.internal.ExecutionEngine
+import org.neo4j.cypher.internal.javacompat.GraphDatabaseCypherService
+import org.neo4j.dbms.api.DatabaseManagementService
+
+import scala.collection.mutable
+
+/**
+ * A JVM wide pool of started databases together with their execution engines, so that documentation tests do not have to
+ * boot a database and warm up a query cache for every test.
+ *
+ * Databases are pooled by a key describing how they were created. A leased database still contains whatever the previous
+ * user left in it, so the user is responsible for cleaning it. At most maxIdlePerKey databases are kept per key, others are
+ * shut down when released. Idle databases are shut down when the JVM exits.
+ */
+object DatabasePool {
+
+  case class PooledDatabase(key: Any, dbFolder: File, managementService: DatabaseManagementService,
+                            db: GraphDatabaseCypherService, engine: ExecutionEngine)
+
+  val maxIdlePerKey: Int = Option(System.getProperty("docs.database.pool.size")).map(_.toInt).getOrElse(2)
+
+  private val idle = mutable.Map.empty[Any, List[PooledDatabase]]
+
+  Runtime.getRuntime.addShutdownHook(new Thread(() => shutdownAll()))
+
+  def lease(key: Any)(create: => PooledDatabase): PooledDatabase = {
+    val pooled = synchronized {
+      idle.getOrElse(key, Nil) match {
+        case head :: tail =>
+          idle(key) = tail
+          Some(head)
+        case Nil =>
+          None
+      }
+    }
+    pooled.getOrElse(create)
+  }
+
+  def release(database: PooledDatabase): Unit = {
+    val kept = synchronized {
+      val databases = idle.getOrElse(database.key, Nil)
+      if (databases.size < maxIdlePerKey) {
+        idle(database.key) = database :: databases
+        true
+      } else false
+    }
+    if (!kept) shutdown(database)
+  }
+
+  private def shutdownAll(): Unit = {
+    val databases = synchronized {
+      val all = idle.values.flatten.toList
+      idle.clear()
+      all
+    }
+    databases.foreach(shutdown)
+  }
+
+  private def shutdown(database: PooledDatabase): Unit = {
+    database.managementService.shutdown()
+    FileUtils.deleteQuietly(database.dbFolder)
+  }
+}
@@ -34,7 +34,7 @@ import org.neo4j.cypher.example.JavaExecutionEngineDocTest
 import org.neo4j.cypher.export.{DatabaseSubGraph, SubGraphExporter}
 import org.neo4j.cypher.internal.ExecutionEngine
 import org.neo4j.cypher.internal.javacompat.{GraphDatabaseCypherService, GraphImpl, ResultSubscriber}
-import org.neo4j.cypher.internal.runtime.{RuntimeJavaValueConverter, isGraphKernelResultValue}
+import org.neo4j.cypher.internal.runtime.{QueryStatistics, RuntimeJavaValueConverter, isGraphKernelResultValue}
 import org.neo4j.cypher.internal.util.Eagerly
 import org.neo4j.cypher.{ExecutionEngineHelper, GraphIcing}
 import org.neo4j.dbms.api.{DatabaseManagementService, DatabaseManagementServiceBuilder}
@@ -346,60 +346,17 @@ abstract class DocumentingTestBase extends JUnitSuite with DocumentationHelper w
 
     val results = planners.flatMap {
       case planner if expectedException.isEmpty =>
-        val parametersValue = ValueUtils.asMapValue(javaValues.asDeepJavaMap(parameters).asInstanceOf[java.util.Map[String, AnyRef]])
-
-        val contextFactory = Neo4jTransactionalContextFactory.create( db )
-        def txContext(transaction: InternalTransaction) =
-          contextFactory.newContext(
-            transaction,
-            query,
-            parametersValue
-          )
-
-        /*
-        Note on transaction handling here:
-
-        We have to execute the query in an implicit top-level transaction, because otherwise PERIODIC COMMIT
-        does not work. Depending on the kind of query, the query might be completely executed and materialized
-        under the hood by the cypher execution engine before returning from execute, and in some cases
-        `executeTransaction` is also closed.
-
-        For this reason we create a second `extractResultTransaction` to use while building the [[DocsExecutionResult]].
-        If `executionTransaction` was closed by execute this will create a new real transaction, but in most cases it's
-        simply going to become a `PlaceBoTransaction` inside `executeTransaction`, giving no overhead. We need to
-        guarantee a transaction during result building in case the [[ResultStringBuilder]] needs to fetch e.g. node properties.
-
-        After building the docsResult, both `executeTransaction` and `extractResultTransaction` are closed.
-
-        We now create one final transaction is which to execute assertions, by doing
-
-          `db.inTx(assertions(docsResult))`
-
-        This transaction is necessary for Core API access in assertion code.
-         */
-        val executeTransaction = db.beginTransaction( Type.IMPLICIT, SecurityContext.AUTH_DISABLED )
-        val docsResult = try {
-          val context = txContext(executeTransaction)
-          val subscriber = new ResultSubscriber(context)
-          val result = engine.execute(s"$planner $query",
-            parametersValue,
-            context,
-            profile = false,
-            prePopulate = false,
-            subscriber)
-          subscriber.init(result)
-          val docResult = DocsExecutionResult(subscriber, txContext(executeTransaction))
-          executeTransaction.commit()
-          docResult
-        } finally executeTransaction.close()
+        val (docsResult, rolledBack) = executeForResult(db, engine, planner, query, parameters)
 
         assertions(docsResult)
         val resultAsString = docsResult.resultAsString
         if (graphvizExecutedAfter && planner == planners.head) {
           dumpGraphViz(dir, graphvizOptions.trim)
         }
-        reset()
-        prepareFunction
+        if (!rolledBack) {
+          reset()
+          prepareFunction
+        }
         Some(resultAsString)
 
       case s =>
@@ -445,8 +402,80 @@ abstract class DocumentingTestBase extends JUnitSuite with DocumentationHelper w
     results.headOption
   }
 
+  /*
+  Note on transaction handling here:
+
+  We have to execute the query in an implicit top-level transaction, because otherwise PERIODIC COMMIT
+  does not work. Depending on the kind of query, the query might be completely executed and materialized
+  under the hood by the cypher execution engine before returning from execute, and in some cases
+  `executeTransaction` is also closed.
+
+  For this reason we create a second `extractResultTransaction` to use while building the [[DocsExecutionResult]].
+  If `executionTransaction` was closed by execute this will create a new real transaction, but in most cases it's
+  simply going to become a `PlaceBoTransaction` inside `executeTransaction`, giving no overhead. We need to
+  guarantee a transaction during result building in case the [[ResultStringBuilder]] needs to fetch e.g. node properties.
+
+  After building the docsResult, both `executeTransaction` and `extractResultTransaction` are closed. With a
+  rollback reset strategy, `executeTransaction` is rolled back instead of committed whenever that is possible,
+  which leaves the fixture untouched so that the reset afterwards can be skipped.
+
+  The caller then runs the assertions on the result. They get their own transactions when they need Core API access.
+   */
+  private def executeForResult(target: GraphDatabaseCypherService,
+                               targetEngine: ExecutionEngine,
+                               planner: String,
+                               query: String,
+                               parameters: Map[String, Any]): (DocsExecutionResult, Boolean) = {
+    val parametersValue = ValueUtils.asMapValue(javaValues.asDeepJavaMap(parameters).asInstanceOf[java.util.Map[String, AnyRef]])
+
+    val contextFactory = Neo4jTransactionalContextFactory.create( target )
+    def txContext(transaction: InternalTransaction) =
+      contextFactory.newContext(
+        transaction,
+        query,
+        parametersValue
+      )
+
+    val executeTransaction = target.beginTransaction( Type.IMPLICIT, SecurityContext.AUTH_DISABLED )
+    try {
+      val context = txContext(executeTransaction)
+      val subscriber = new ResultSubscriber(context)
+      val result = targetEngine.execute(s"$planner $query",
+        parametersValue,
+        context,
+        profile = false,
+        prePopulate = false,
+        subscriber)
+      subscriber.init(result)
+      val docResult = DocsExecutionResult(subscriber, txContext(executeTransaction))
+      if (canRollBack(executeTransaction, docResult.queryStatistics())) {
+        executeTransaction.rollback()
+        (docResult, true)
+      } else {
+        executeTransaction.commit()
+        (docResult, false)
+      }
+    } finally executeTransaction.close()
+  }
+
+  /*
+  A query can be rolled back when the reset strategy allows it and the query ran entirely in the given transaction
+  without touching the schema or the system database. PERIODIC COMMIT queries commit transactions of their own, and
+  a graph dumped after the query has to show what the query did, so those are always committed and followed by a reset.
+   */
+  private def canRollBack(transaction: InternalTransaction, statistics: QueryStatistics): Boolean =
+    rollbackQueries && !graphvizExecutedAfter && transaction.isOpen &&
+      statistics.transactionsCommitted == 0 && !statistics.containsSystemUpdates && !containsSchemaUpdates(statistics)
+
+  private def containsSchemaUpdates(statistics: QueryStatistics): Boolean =
+    statistics.indexesAdded > 0 || statistics.indexesRemoved > 0 ||
+      statistics.uniqueConstraintsAdded > 0 || statistics.uniqueConstraintsRemoved > 0 ||
+      statistics.existenceConstraintsAdded > 0 || statistics.existenceConstraintsRemoved > 0 ||
+      statistics.nodekeyConstraintsAdded > 0 || statistics.nodekeyConstraintsRemoved > 0
+
   var dbFolder: File = _
   var managementService: DatabaseManagementService = _
+  private var pooledDatabase: DatabasePool.PooledDatabase = _
   var db: GraphDatabaseCypherService = _
   var engine: ExecutionEngine = _
   var nodeMap: Map[String, Long] = _
@@ -540,7 +569,11 @@ abstract class DocumentingTestBase extends JUnitSuite with DocumentationHelper w
 
   @After
   def tearDown() {
-    if (managementService != null) {
+    if (pooledDatabase != null) {
+      DatabasePool.release(pooledDatabase)
+      pooledDatabase = null
+      managementService = null
+    } else if (managementService != null) {
       managementService.shutdown()
       FileUtils.deleteDirectory(dbFolder)
     }
@@ -561,18 +594,42 @@ abstract class DocumentingTestBase extends JUnitSuite with DocumentationHelper w
     new DatabaseManagementServiceBuilder(directory).setConfig(databaseConfig()).build()
   }
 
+  /*
+  Tests sharing a database lease it from the DatabasePool instead of starting a new one, and get it cleaned by softReset.
+  Only tests whose output does not depend on entity ids should share, since ids are not reset by cleaning.
+   */
+  def shareDatabase: Boolean = false
+
+  // Databases created the same way are interchangeable, so subclasses creating them differently should override this
+  protected def databasePoolKey: Any = ("community", databaseConfig().asScala.toMap)
+
   override def hardReset() {
     tearDown()
-    dbFolder = new File("target/example-db" + System.nanoTime())
-    managementService = newDatabaseManagementService(dbFolder)
-    val database: GraphDatabaseService = managementService.database(DEFAULT_DATABASE_NAME)
-    db = new GraphDatabaseCypherService(database)
-
-    engine = ExecutionEngineFactory.createCommunityEngineFromDb(database) // TODO: This should be Enterprise!
+    if (shareDatabase) {
+      pooledDatabase = DatabasePool.lease(databasePoolKey)(newPooledDatabase())
+      dbFolder = pooledDatabase.dbFolder
+      managementService = pooledDatabase.managementService
+      db = pooledDatabase.db
+      engine = pooledDatabase.engine
+    } else {
+      val database = newPooledDatabase()
+      dbFolder = database.dbFolder
+      managementService = database.managementService
+      db = database.db
+      engine = database.engine
+    }
 
     softReset()
   }
 
+  private def newPooledDatabase(): DatabasePool.PooledDatabase = {
+    val folder = new File("target/example-db" + System.nanoTime())
+    val service = newDatabaseManagementService(folder)
+    val database: GraphDatabaseService = service.database(DEFAULT_DATABASE_NAME)
+    val engine = ExecutionEngineFactory.createCommunityEngineFromDb(database) // TODO: This should be Enterprise!
+    DatabasePool.PooledDatabase(databasePoolKey, folder, service, new GraphDatabaseCypherService(database), engine)
+  }
+
   override def softReset() {
     cleanDatabaseContent(db.getGraphDatabaseService)
 
@@ -655,6 +712,7 @@ trait ResetStrategy {
   def reset() {}
   def hardReset() {}
   def softReset() {}
+  def rollbackQueries: Boolean = false
 }
 
 trait HardReset extends ResetStrategy {
@@ -668,3 +726,18 @@ trait SoftReset extends ResetStrategy {
     softReset()
   }
 }
+
+/*
+Documented queries are rolled back instead of committed whenever possible, so that no reset is needed after them.
+Assertions only get to see the query result, not the changes in the database.
+ */
+trait RollbackReset extends SoftReset {
+  override def rollbackQueries: Boolean = true
+}
+
+/*
+Tests lease a warm database and execution engine from the DatabasePool instead of starting new ones, see DocumentingTestBase.shareDatabase.
+ */
+trait SharedDatabase extends DocumentingTestBase {
+  override def shareDatabase: Boolean = true
+}
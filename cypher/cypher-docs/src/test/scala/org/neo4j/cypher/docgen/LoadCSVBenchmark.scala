@@ -0,0 +1,139 @@
+/*
+ * Copyright (c) "Neo4j"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.docgen
+
+import java.io.File
+import java.lang.management.{ManagementFactory, MemoryType}
+import java.nio.file.Files
+
+import org.apache.commons.io.FileUtils
+import org.neo4j.configuration.GraphDatabaseSettings
+import org.neo4j.configuration.GraphDatabaseSettings.DEFAULT_DATABASE_NAME
+import org.neo4j.dbms.api.DatabaseManagementServiceBuilder
+import org.neo4j.graphdb.Result
+
+import scala.collection.JavaConverters._
+
+/**
+  * Runs the `LOAD CSV` query shapes documented in [[LoadCSVTest]] over generated files of increasing size, with
+  * different `USING PERIODIC COMMIT` sizes, and reports rows per second, how much the transaction logs grew and
+  * the peak heap used. Every run starts from an empty database.
+  *
+  * Run with: LoadCSVBenchmark [file sizes, e.g. 10m,100m,1g] [commit sizes, e.g. 100,1000,default,none] [shapes]
+  *
+  * The shapes are `plain`, `headers` and `fieldterminator`. A commit size of `default` uses `USING PERIODIC COMMIT`
+  * without a size, `none` loads the whole file in one transaction.
+  */
+object LoadCSVBenchmark {
+
+  private case class Shape(name: String, delimiter: Char, headers: Boolean, query: String)
+
+  private val shapes = Seq(
+    Shape("plain", ',', headers = false,
+      "LOAD CSV FROM '%s' AS line CREATE (:Artist {name: line[1], year: toInteger(line[2])})"),
+    Shape("headers", ',', headers = true,
+      "LOAD CSV WITH HEADERS FROM '%s' AS line CREATE (:Artist {name: line.Name, year: toInteger(line.Year)})"),
+    Shape("fieldterminator", ';', headers = false,
+      "LOAD CSV FROM '%s' AS line FIELDTERMINATOR ';' CREATE (:Artist {name: line[1], year: toInteger(line[2])})")
+  )
+
+  private val artists = Array("ABBA", "Roxette", "Europe", "The Cardigans")
+
+  def main(args: Array[String]): Unit = {
+    val sizes = (if (args.length > 0) args(0) else "10m,100m,1g").split(",").map(_.trim)
+    val commitSizes = (if (args.length > 1) args(1) else "100,1000,10000,100000").split(",").map(_.trim)
+    val shapeNames = (if (args.length > 2) args(2) else shapes.map(_.name).mkString(",")).split(",").map(_.trim).toSet
+
+    val directory = Files.createTempDirectory("load-csv-benchmark").toFile
+    implicit val csvFilesDir: File = new File(directory, "csv")
+    csvFilesDir.mkdirs()
+    try {
+      println(f"${"shape"}%-16s ${"size"}%8s ${"commit"}%8s ${"rows"}%12s ${"rows/s"}%12s ${"tx log MB"}%10s ${"peak heap MB"}%13s")
+      for (size <- sizes; shape <- shapes if shapeNames.contains(shape.name)) {
+        val (csv, rows) = generate(shape, parseSize(size))
+        for (commitSize <- commitSizes) {
+          run(directory, shape, size, csv, rows, commitSize)
+        }
+        csv.delete()
+      }
+    } finally {
+      FileUtils.deleteQuietly(directory)
+    }
+  }
+
+  private def generate(shape: Shape, targetBytes: Long)(implicit csvFilesDir: File): (File, Long) = {
+    var bytes = 0L
+    var rows = 0L
+    val header = if (shape.headers) Iterator(Seq("Id", "Name", "Year")) else Iterator.empty
+    val body = Iterator.from(1).takeWhile(_ => bytes < targetBytes).map { id =>
+      val row = Seq(id.toString, s"${artists(id % artists.length)} $id", (1950 + id % 70).toString)
+      bytes += row.map(_.length + 1).sum
+      rows += 1
+      row
+    }
+    val file = new CsvFile(s"artists-${shape.name}-$targetBytes.csv", shape.delimiter).withRows(header ++ body)
+    (file, rows)
+  }
+
+  private def run(directory: File, shape: Shape, size: String, csv: File, rows: Long, commitSize: String): Unit = {
+    val home = new File(directory, "db")
+    val txLogs = new File(directory, "tx-logs")
+    FileUtils.deleteQuietly(home)
+    FileUtils.deleteQuietly(txLogs)
+    val managementService = new DatabaseManagementServiceBuilder(home)
+      .setConfig(GraphDatabaseSettings.transaction_logs_root_path, txLogs.toPath.toAbsolutePath)
+      .build()
+    try {
+      val db = managementService.database(DEFAULT_DATABASE_NAME)
+      val periodicCommit = commitSize match {
+        case "none" => ""
+        case "default" => "USING PERIODIC COMMIT "
+        case n => s"USING PERIODIC COMMIT $n "
+      }
+      val query = periodicCommit + shape.query.format(CsvFile.urify(csv))
+
+      val logBytesBefore = FileUtils.sizeOfDirectory(txLogs)
+      System.gc()
+      val heapPools = ManagementFactory.getMemoryPoolMXBeans.asScala.filter(_.getType == MemoryType.HEAP)
+      heapPools.foreach(_.resetPeakUsage())
+
+      val start = System.nanoTime()
+      val created = db.executeTransactionally(query, java.util.Collections.emptyMap[String, AnyRef](),
+        (result: Result) => result.getQueryStatistics.getNodesCreated)
+      val elapsed = System.nanoTime() - start
+
+      val peakHeap = heapPools.map(_.getPeakUsage.getUsed).sum
+      val logBytes = FileUtils.sizeOfDirectory(txLogs) - logBytesBefore
+      if (created != rows) {
+        throw new IllegalStateException(s"Created $created nodes from $rows rows")
+      }
+      println(f"${shape.name}%-16s $size%8s $commitSize%8s $rows%12d ${rows * 1e9 / elapsed}%12.0f ${logBytes / 1e6}%10.1f ${peakHeap / 1e6}%13.0f")
+    } finally {
+      managementService.shutdown()
+    }
+  }
+
+  private def parseSize(size: String): Long = size.toLowerCase.last match {
+    case 'k' => size.dropRight(1).toLong << 10
+    case 'm' => size.dropRight(1).toLong << 20
+    case 'g' => size.dropRight(1).toLong << 30
+    case _ => size.toLong
+  }
+}
@@ -26,7 +26,7 @@ import org.junit.Test
 import java.io.File
 import org.junit.Assert._
 
-class LoadCSVTest extends DocumentingTestBase with QueryStatisticsTestSupport with SoftReset {
+class LoadCSVTest extends DocumentingTestBase with QueryStatisticsTestSupport with RollbackReset {
 
   override protected def getGraphvizStyle: GraphStyle =
     AsciiDocSimpleStyle.withAutomaticRelationshipTypeColors()
@@ -27,11 +27,15 @@ import org.junit.Assert._
 import org.junit.Test
 import org.neo4j.dbms.api.DatabaseManagementService
 
-class QueryPlanTest extends DocumentingTestBase with SoftReset {
+import scala.collection.JavaConverters._
+
+class QueryPlanTest extends DocumentingTestBase with RollbackReset with SharedDatabase {
 
   override protected def newDatabaseManagementService(directory: File): DatabaseManagementService =
     new EnterpriseDatabaseManagementServiceBuilder(directory).setConfig(databaseConfig()).build()
 
+  override protected def databasePoolKey: Any = ("enterprise", databaseConfig().asScala.toMap)
+
   override val setupQueries = List(
     """CREATE (me:Person {name: 'me'})
        CREATE (andy:Person {name: 'Andy'})
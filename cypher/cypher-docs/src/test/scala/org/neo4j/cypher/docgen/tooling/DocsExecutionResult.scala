@@ -43,6 +43,7 @@ class DocsExecutionResult(val columns: Array[String],
                           val notifications: Iterable[Notification]) {
 
   def columnAs[T](column: String): Iterator[T] = result.iterator.map(row => row(column).asInstanceOf[T])
+  def iterator: Iterator[Map[String, Any]] = result.iterator
   def toList: List[Map[String, Any]] = result.toList
   def toSet: Set[Map[String, Any]] = result.toSet
   def size: Long = result.size
@@ -79,10 +80,7 @@ object DocsExecutionResult {
       }
     })
 
-    val statistics = in.getQueryStatistics match {
-      case s:QueryStatistics => s
-      case _ => QueryStatistics()
-    }
+    val statistics = queryStatistics(in)
 
     new DocsExecutionResult(
       columns,
@@ -93,4 +91,9 @@ object DocsExecutionResult {
       in.getNotifications.asScala
       )
   }
+
+  def queryStatistics(in: Result): QueryStatistics = in.getQueryStatistics match {
+    case s:QueryStatistics => s
+    case _ => QueryStatistics()
+  }
 }
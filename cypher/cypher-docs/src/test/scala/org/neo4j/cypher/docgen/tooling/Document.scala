@@ -224,34 +224,64 @@ case class ResultRow(values: Seq[String])
 
 case class QueryResultTable(columns: Seq[String], rows: Seq[ResultRow], footer: String) extends Content with NoQueries {
   override def asciiDoc(level: Int): String = {
+    val tableRows = new StringBuilder
+    rows.foreach(row => QueryResultTableFormat.appendRow(tableRows, row.values))
+    QueryResultTableFormat.asciiDoc(columns, rows.nonEmpty, tableRows, footer)
+  }
+}
 
-    val header = if (rows.nonEmpty) "header," else ""
-    val cols = if (columns.isEmpty) 1 else columns.size
-    val rowsOutput: String = if (rows.isEmpty) s"$cols+|(empty result)"
-    else {
-      val columnHeader = columns.map(escape).mkString("| ", " | ", "")
-      val tableRows =
-        rows.
-          map(row => row.values.map(escape).mkString("|| ", " | ", "")).
-          mkString("\n")
-
-      s"$columnHeader\n$tableRows"
+/**
+  * A result table whose rows were rendered to AsciiDoc while the result was being consumed,
+  * so the rows themselves never have to be held on to.
+  */
+case class RenderedQueryResultTable(columns: Seq[String], renderedRows: String, rowCount: Long, footer: String) extends Content with NoQueries {
+  override def asciiDoc(level: Int): String =
+    QueryResultTableFormat.asciiDoc(columns, rowCount > 0, renderedRows, footer)
+}
+
+object QueryResultTableFormat {
+
+  def appendRow(builder: StringBuilder, values: Iterable[String]): Unit = {
+    if (builder.nonEmpty) builder.append('\n')
+    builder.append('|')
+    var first = true
+    values.foreach { value =>
+      builder.append(if (first) " " else " | ")
+      appendEscaped(builder, value)
+      first = false
     }
+  }
 
+  def asciiDoc(columns: Seq[String], hasRows: Boolean, renderedRows: CharSequence, footer: String): String = {
+    val header = if (hasRows) "header," else ""
+    val cols = if (columns.isEmpty) 1 else columns.size
     // Remove trailing white space, then add <space>+ at the end of all rows (except the last one)
     val footerRows = footer.replaceAll("\\s+$", "").replaceAllLiterally("\n", " +\n")
 
-    s""".Result
-       |[role="queryresult",options="${header}footer",cols="$cols*<m"]
-       ||===
-       |$rowsOutput
-       |$cols+d|$footerRows
-       ||===
-       |
-       |""".stripMargin
+    val out = new StringBuilder(renderedRows.length() + footerRows.length + 128)
+    out.append(".Result\n")
+    out.append(s"""[role="queryresult",options="${header}footer",cols="$cols*<m"]\n""")
+    out.append("|===\n")
+    if (hasRows) {
+      out.append('|')
+      var first = true
+      columns.foreach { column =>
+        out.append(if (first) " " else " | ")
+        appendEscaped(out, column)
+        first = false
+      }
+      out.append('\n').append(renderedRows)
+    } else {
+      out.append(s"$cols+|(empty result)")
+    }
+    out.append('\n')
+    out.append(s"$cols+d|$footerRows\n")
+    out.append("|===\n")
+    out.append('\n')
+    out.toString()
   }
 
-  private def escape(in: String): String = "+%s+".format(in)
+  private def appendEscaped(builder: StringBuilder, in: String): Unit = builder.append('+').append(in).append('+')
 }
 
 trait SimpleQueryResultTable extends Content with NoQueries {
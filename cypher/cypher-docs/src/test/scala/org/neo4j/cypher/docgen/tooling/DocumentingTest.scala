@@ -111,8 +111,8 @@ trait DocumentingTest extends CypherFunSuite with Assertions with Matchers with
   }
 
   private def runQueries(doc: Document): TestRunResult = {
-    val builder = (db: GraphDatabaseQueryService, tx: InternalTransaction) => new QueryResultContentBuilder(new ValueFormatter(db, tx))
-    val runner = new QueryRunner(builder)
+    val valueFormatter = (db: GraphDatabaseQueryService, tx: InternalTransaction) => new ValueFormatter(db, tx)
+    val runner = new QueryRunner(valueFormatter)
     val result = runner.runQueries(contentsWithInit = doc.contentWithQueries, doc.title)
     result
   }
@@ -122,13 +122,15 @@ trait DocumentingTest extends CypherFunSuite with Assertions with Matchers with
 // formatting applied to them
 class ValueFormatter(db: GraphDatabaseQueryService, tx: InternalTransaction) extends (Any => String) with CypherSerializer with GraphIcing {
   val contextFactory = Neo4jTransactionalContextFactory.create( db )
-  def apply(x: Any): String = {
 
+  // One query context serves all values of a result, they are formatted within the same transaction
+  private lazy val ctx = {
     val transactionalContext = TransactionalContextWrapper(
       contextFactory.newContext(tx, "QUERY", EMPTY_MAP )
     )
     val QUIET_MONITOR:IndexSearchMonitor = null // this is ok because we're only serializing using this TBQC
-    val ctx = new TransactionBoundQueryContext(transactionalContext, new ResourceManager())(QUIET_MONITOR)
-    serialize(x, ctx)
+    new TransactionBoundQueryContext(transactionalContext, new ResourceManager())(QUIET_MONITOR)
   }
+
+  def apply(x: Any): String = serialize(x, ctx)
 }
@@ -19,39 +19,106 @@
  */
 package org.neo4j.cypher.docgen.tooling
 
+import org.neo4j.cypher.internal.runtime.QueryStatistics
+import org.neo4j.graphdb.Result
+import org.neo4j.graphdb.Result.ResultVisitor
+
 /**
  * This class is responsible for replacing the Content tags asking for query results
  * with the actual results from running the queries, formatted according to the normal
  * textual output of ExecutionResultDumper
+ *
+ * At most `maxRows` rows are shown. When there are more, a marker row is added and
+ * the footer tells how many rows were left out.
  */
-class QueryResultContentBuilder(valueFormatter: Any => String)
+class QueryResultContentBuilder(valueFormatter: Any => String, maxRows: Int = Int.MaxValue)
   extends (DocsExecutionResult => Content) {
 
   override def apply(result: DocsExecutionResult): Content = {
 
     val columns = result.columns
-    var rowCount = 0
+    var rowCount = 0L
+    val rows = Seq.newBuilder[ResultRow]
 
-    /* Need to do .toList here, to see the results. The iterator has been emptied,
-     but it is a DocsExecutionResult we have here that can still provide
-     the backing List. Yeah, it's a hack, but it allows us to both assert on the
-     results and produce text output */
-    val rows = result.toList.map { resultRow =>
+    /* The iterator of the query has been emptied, but it is a DocsExecutionResult we
+     have here that can still provide the backing rows. Yeah, it's a hack, but it allows
+     us to both assert on the results and produce text output */
+    result.iterator.foreach { resultRow =>
       rowCount += 1
-      val values = columns.map { key =>
-        val value = resultRow(key)
-        valueFormatter(value)
-      }.toSeq
-      ResultRow(values)
+      if (rowCount <= maxRows) {
+        rows += ResultRow(columns.map(key => valueFormatter(resultRow(key))))
+      }
+    }
+    if (rowCount > maxRows) {
+      rows += QueryResultContentBuilder.truncationMarker(columns)
     }
 
-    val footerRows = s"Rows: $rowCount"
-    val footer = if (result.queryStatistics().containsUpdates)
-      footerRows + "\n" + result.queryStatistics().toString
+    QueryResultTable(result.columns, rows.result(), QueryResultContentBuilder.footer(rowCount, maxRows, result.queryStatistics()))
+  }
+}
+
+object QueryResultContentBuilder {
+
+  val TruncatedValue = "..."
+
+  def truncationMarker(columns: Seq[String]): ResultRow = ResultRow(columns.map(_ => TruncatedValue))
+
+  def footer(rowCount: Long, maxRows: Int, statistics: QueryStatistics): String = {
+    val footerRows =
+      if (rowCount > maxRows) s"Rows: $rowCount ($maxRows shown)"
+      else s"Rows: $rowCount"
+    if (statistics.containsUpdates)
+      footerRows + "\n" + statistics.toString
     else
       footerRows
+  }
+}
+
+/**
+ * Builds the result table in the same single pass that consumes the query result,
+ * without materializing the rows first. QueryRunner uses it for queries without assertions.
+ * When a `rowAssertion` is given, each row is handed to it as a map before it is formatted,
+ * so tests can assert on the rows as they stream by. Only the rendered text of the first
+ * `maxRows` rows is kept, and values of rows past that are not even converted.
+ */
+class StreamingQueryResultContentBuilder(valueFormatter: Any => String, maxRows: Int = Int.MaxValue) {
+
+  def apply(in: Result, rowAssertion: Option[Map[String, Any] => Unit] = None): Content = {
+    val columnNames = in.columns().toArray(new Array[String](0))
+    val columns = columnNames.toSeq
+    val renderedRows = new StringBuilder
+    val values = new Array[Any](columnNames.length)
+    val renderedValues = new Array[String](columnNames.length)
+    var rowCount = 0L
+
+    in.accept(new ResultVisitor[Exception] {
+      override def visit(row: Result.ResultRow): Boolean = {
+        rowCount += 1
+        val rendered = rowCount <= maxRows
+        if (rendered || rowAssertion.isDefined) {
+          var i = 0
+          while (i < values.length) {
+            values(i) = DocsExecutionResult.scalaValues.asDeepScalaValue(row.get(columnNames(i)))
+            i += 1
+          }
+          rowAssertion.foreach(assertion => assertion(columns.zip(values).toMap))
+        }
+        if (rendered) {
+          var i = 0
+          while (i < values.length) {
+            renderedValues(i) = valueFormatter(values(i))
+            i += 1
+          }
+          QueryResultTableFormat.appendRow(renderedRows, renderedValues)
+        }
+        true
+      }
+    })
+    if (rowCount > maxRows) {
+      QueryResultTableFormat.appendRow(renderedRows, QueryResultContentBuilder.truncationMarker(columns).values)
+    }
 
-    QueryResultTable(result.columns, rows, footer)
+    RenderedQueryResultTable(columns, renderedRows.toString(), rowCount, QueryResultContentBuilder.footer(rowCount, maxRows, DocsExecutionResult.queryStatistics(in)))
   }
 }
 
@@ -59,7 +126,7 @@ class StatsOnlyQueryResultContentBuilder() extends (DocsExecutionResult => Conte
 
   override def apply(result: DocsExecutionResult): Content = {
 
-    assert(result.toList.isEmpty, "We can only use the 'StatsOnly' results content builder for queries that return no rows")
+    assert(result.isEmpty, "We can only use the 'StatsOnly' results content builder for queries that return no rows")
 
     val footerRows = "0 rows"
     val stats = result.queryStatistics()
@@ -19,6 +19,8 @@
  */
 package org.neo4j.cypher.docgen.tooling
 
+import java.util.concurrent.{Callable, ExecutionException, Executors}
+
 import org.neo4j.cypher.GraphIcing
 import org.neo4j.exceptions.InternalException
 import org.neo4j.internal.kernel.api.security.SecurityContext.AUTH_DISABLED
@@ -26,7 +28,7 @@ import org.neo4j.kernel.GraphDatabaseQueryService
 import org.neo4j.kernel.api.KernelTransaction.Type
 import org.neo4j.kernel.impl.coreapi.InternalTransaction
 
-import scala.collection.immutable.Iterable
+import scala.collection.mutable
 import scala.util.{Failure, Success, Try}
 
 /**
@@ -37,64 +39,87 @@ import scala.util.{Failure, Success, Try}
  * init queries together. After running the query, we check if it updated the graph. If a query updates the graph,
  * we drop the database and create a new one. This way we can make sure that two queries don't affect each other more than
  * necessary.
+ *
+ * Groups with different initialization use different databases, so they are run in parallel, see QueryRunner.parallelism.
  */
-class QueryRunner(formatter: (GraphDatabaseQueryService, InternalTransaction) => DocsExecutionResult => Content) extends GraphIcing {
+class QueryRunner(valueFormatter: (GraphDatabaseQueryService, InternalTransaction) => Any => String) extends GraphIcing {
   val statsOnly: DocsExecutionResult => Content = new StatsOnlyQueryResultContentBuilder()
   val errorOnly: Throwable => Content = new ErrorOnlyQueryResultContentBuilder()
 
   def runQueries(contentsWithInit: Seq[ContentWithInit], title: String): TestRunResult = {
 
-    val groupedByInits: Map[RunnableInitialization, Seq[(DatabaseQuery, QueryResultPlaceHolder)]] =
-      contentsWithInit.groupBy(_.initKey).mapValues(_.map(cwi => cwi.queryToPresent -> cwi.queryResultPlaceHolder))
-    var graphVizCounter = 0
+    // Groups are kept in order of first appearance. groupBy would order them by the hash of RunnableInitialization,
+    // which holds functions and classes with identity hashes, and so changes from run to run
+    val groups = mutable.LinkedHashMap.empty[RunnableInitialization, mutable.ArrayBuffer[(DatabaseQuery, QueryResultPlaceHolder)]]
+    contentsWithInit.foreach { cwi =>
+      groups.getOrElseUpdate(cwi.initKey, mutable.ArrayBuffer.empty) += cwi.queryToPresent -> cwi.queryResultPlaceHolder
+    }
+    val groupedByInits: Seq[(RunnableInitialization, Seq[(DatabaseQuery, QueryResultPlaceHolder)])] = groups.toSeq
 
-    val results: Iterable[RunResult] = groupedByInits.flatMap {
+    // Graph visualisations are numbered up front, in group order, so that their names do not depend on
+    // which group happens to run first
+    var graphVizCounter = 0
+    val numberedGroups: Seq[(RunnableInitialization, Seq[((DatabaseQuery, QueryResultPlaceHolder), Int)])] = groupedByInits.map {
       case (init, placeHolders) =>
+        init -> placeHolders.map {
+          case queryAndPlaceHolder@(_, _: GraphVizPlaceHolder) =>
+            graphVizCounter = graphVizCounter + 1
+            queryAndPlaceHolder -> graphVizCounter
+          case queryAndPlaceHolder =>
+            queryAndPlaceHolder -> 0
+        }
+    }
 
-        val dbms = new RestartableDatabase(init)
-        try {
-          if (dbms.failures.nonEmpty) dbms.failures
-          else {
-            val result = placeHolders.map { queryAndPlaceHolder =>
-              try {
-                queryAndPlaceHolder match {
-                  case (query: DatabaseQuery, tb: TablePlaceHolder) =>
-                    runSingleQuery(dbms, query, tb.assertions, tb)
-
-                  case (query: DatabaseQuery, gv: GraphVizPlaceHolder) =>
-                    graphVizCounter = graphVizCounter + 1
-                    Try(dbms.executeWithParams(query)) match {
-                      case Success(inner) =>
-                        GraphVizRunResult(gv, captureStateAsGraphViz(dbms.getInnerDb, title, graphVizCounter, gv.options))
-                      case Failure(error) =>
-                        QueryRunResult(query.prettified, gv, Left(error))
-                    }
-
-                  case (query: DatabaseQuery, placeHolder: ExecutionPlanPlaceHolder) =>
-                    explainSingleQuery(dbms, query, placeHolder.assertions, placeHolder)
-
-                  case (query: DatabaseQuery, placeHolder: ProfileExecutionPlanPlaceHolder) =>
-                    profileSingleQuery(dbms, query, placeHolder.assertions, placeHolder)
-
-                  case _ =>
-                    ???
+    val results: Seq[RunResult] = QueryRunner.inParallel(numberedGroups) {
+      case (init, placeHolders) => runGroup(init, placeHolders, title)
+    }.flatten
+
+    TestRunResult(results)
+  }
+
+  private def runGroup(init: RunnableInitialization,
+                       placeHolders: Seq[((DatabaseQuery, QueryResultPlaceHolder), Int)],
+                       title: String): Seq[RunResult] = {
+    val dbms = new RestartableDatabase(init)
+    try {
+      if (dbms.failures.nonEmpty) dbms.failures
+      else {
+        val result = placeHolders.map { case (queryAndPlaceHolder, graphVizNumber) =>
+          try {
+            queryAndPlaceHolder match {
+              case (query: DatabaseQuery, tb: TablePlaceHolder) =>
+                runSingleQuery(dbms, query, tb.assertions, tb)
+
+              case (query: DatabaseQuery, gv: GraphVizPlaceHolder) =>
+                Try(dbms.executeWithParams(query)) match {
+                  case Success(inner) =>
+                    GraphVizRunResult(gv, captureStateAsGraphViz(dbms.getInnerDb, title, graphVizNumber, gv.options))
+                  case Failure(error) =>
+                    QueryRunResult(query.prettified, gv, Left(error))
                 }
-              } finally {
-                dbms.nowIsASafePointToRestartDatabase()
-              }
+
+              case (query: DatabaseQuery, placeHolder: ExecutionPlanPlaceHolder) =>
+                explainSingleQuery(dbms, query, placeHolder.assertions, placeHolder)
+
+              case (query: DatabaseQuery, placeHolder: ProfileExecutionPlanPlaceHolder) =>
+                profileSingleQuery(dbms, query, placeHolder.assertions, placeHolder)
+
+              case _ =>
+                ???
             }
-            result
+          } finally {
+            dbms.nowIsASafePointToRestartDatabase()
           }
-        } finally dbms.shutdown()
-    }
-
-    TestRunResult(results.toSeq)
+        }
+        result
+      }
+    } finally dbms.shutdown()
   }
 
   private def runSingleQuery(dbms: RestartableDatabase, query: DatabaseQuery, assertions: QueryAssertions, content: TablePlaceHolder): QueryRunResult = {
     val format: (InternalTransaction) => (DocsExecutionResult) => Content = (tx: InternalTransaction) => content match {
       case _: StatsOnlyTablePlaceHolder => statsOnly(_)
-      case _ => formatter(dbms.getInnerDb, tx)(_)
+      case _ => new QueryResultContentBuilder(valueFormatter(dbms.getInnerDb, tx))(_)
     }
 
     dbms.login(query.login)
@@ -102,34 +127,20 @@ class QueryRunner(formatter: (GraphDatabaseQueryService, InternalTransaction) =>
     try {
       val result: Either[Throwable, InternalTransaction => Content] =
         try {
-          val resultTry = Try(dbms.executeWithParams(tx, query.runnable, content.params: _*))
-          (assertions, resultTry) match {
-            // *** Success conditions
-
-            case (ResultAssertions(f), Success(r)) =>
-              f(r)
-              Right(format(_)(r))
-
-            case (ResultAndDbAssertions(f), Success(r)) =>
-              f(r, dbms.getInnerDb)
-              Right(format(_)(r))
-
-            case (NoAssertions, Success(r)) =>
-              Right(format(_)(r))
-
-            // *** Error conditions
-            case (ErrorAssertions(f), Failure(exception: Throwable)) =>
-              val errorResult = Try(f(exception))
-              errorResult match {
-                case Success(_) => Right(_ => errorOnly(exception))
-                case _ => Left(exception)
+          (assertions, content) match {
+            case (NoAssertions, _: StatsOnlyTablePlaceHolder) =>
+              runMaterialized(dbms, tx, query, assertions, content, format)
+
+            // Nothing needs the rows afterwards, so they are formatted while the result is consumed instead of being materialized
+            case (NoAssertions, _) =>
+              val builder = new StreamingQueryResultContentBuilder(valueFormatter(dbms.getInnerDb, tx))
+              Try(dbms.executeStreaming(tx, query.runnable, content.params: _*)((result, _) => builder(result))) match {
+                case Success(streamed) => Right(_ => streamed)
+                case Failure(exception) => Left(exception)
               }
 
-            case (_, Failure(exception: Throwable)) =>
-              Left(exception)
-
-            case x =>
-              throw new InternalException(s"Did not see this one coming $x")
+            case _ =>
+              runMaterialized(dbms, tx, query, assertions, content, format)
           }
         } catch {
           case e: Throwable =>
@@ -144,6 +155,43 @@ class QueryRunner(formatter: (GraphDatabaseQueryService, InternalTransaction) =>
     }
   }
 
+  private def runMaterialized(dbms: RestartableDatabase,
+                              tx: InternalTransaction,
+                              query: DatabaseQuery,
+                              assertions: QueryAssertions,
+                              content: TablePlaceHolder,
+                              format: InternalTransaction => DocsExecutionResult => Content): Either[Throwable, InternalTransaction => Content] = {
+    val resultTry = Try(dbms.executeWithParams(tx, query.runnable, content.params: _*))
+    (assertions, resultTry) match {
+      // *** Success conditions
+
+      case (ResultAssertions(f), Success(r)) =>
+        f(r)
+        Right(format(_)(r))
+
+      case (ResultAndDbAssertions(f), Success(r)) =>
+        f(r, dbms.getInnerDb)
+        Right(format(_)(r))
+
+      case (NoAssertions, Success(r)) =>
+        Right(format(_)(r))
+
+      // *** Error conditions
+      case (ErrorAssertions(f), Failure(exception: Throwable)) =>
+        val errorResult = Try(f(exception))
+        errorResult match {
+          case Success(_) => Right(_ => errorOnly(exception))
+          case _ => Left(exception)
+        }
+
+      case (_, Failure(exception: Throwable)) =>
+        Left(exception)
+
+      case x =>
+        throw new InternalException(s"Did not see this one coming $x")
+    }
+  }
+
   private def explainSingleQuery(database: RestartableDatabase,
                                  query: DatabaseQuery,
                                  assertions: QueryAssertions,
@@ -196,6 +244,33 @@ class QueryRunner(formatter: (GraphDatabaseQueryService, InternalTransaction) =>
   }
 }
 
+object QueryRunner {
+  // Every init group boots a database of its own, so the number of groups run at once is bounded by memory as well as cores
+  private val memoryPerDatabase = 256L * 1024 * 1024
+
+  val parallelism: Int = Option(System.getProperty("docs.queryrunner.parallelism")).map(_.toInt).getOrElse(
+    math.max(1, math.min(Runtime.getRuntime.availableProcessors(), (Runtime.getRuntime.maxMemory() / memoryPerDatabase).toInt)))
+
+  /**
+   * Applies f to every task on a bounded pool, and returns the results in the order of the tasks.
+   */
+  private def inParallel[T, R](tasks: Seq[T])(f: T => R): Seq[R] =
+    if (parallelism <= 1 || tasks.size <= 1) tasks.map(f)
+    else {
+      val executor = Executors.newFixedThreadPool(math.min(parallelism, tasks.size))
+      try {
+        val futures = tasks.map(task => executor.submit(new Callable[R] {
+          override def call(): R = f(task)
+        }))
+        futures.map { future =>
+          try future.get() catch {
+            case e: ExecutionException => throw e.getCause
+          }
+        }
+      } finally executor.shutdownNow()
+    }
+}
+
 sealed trait RunResult {
   def success: Boolean
   def original: QueryResultPlaceHolder
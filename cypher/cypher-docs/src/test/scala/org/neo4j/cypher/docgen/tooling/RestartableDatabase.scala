@@ -22,6 +22,7 @@ package org.neo4j.cypher.docgen.tooling
 import java.io.File
 import java.lang.Boolean.FALSE
 import java.lang.Boolean.TRUE
+import java.util.concurrent.atomic.AtomicLong
 
 import com.neo4j.configuration.OnlineBackupSettings
 import com.neo4j.dbms.api.EnterpriseDatabaseManagementServiceBuilder
@@ -37,19 +38,30 @@ import org.neo4j.cypher.internal.javacompat.ResultSubscriber
 import org.neo4j.cypher.ExecutionEngineHelper
 import org.neo4j.cypher.GraphIcing
 import org.neo4j.dbms.api.DatabaseManagementService
+import org.neo4j.graphdb.Result
 import org.neo4j.graphdb.config.Setting
 import org.neo4j.internal.kernel.api.security.SecurityContext.AUTH_DISABLED
 import org.neo4j.kernel.api.KernelTransaction.Type
 import org.neo4j.kernel.api.procedure.GlobalProcedures
 import org.neo4j.kernel.api.security.AuthToken
 import org.neo4j.kernel.impl.coreapi.InternalTransaction
+import org.neo4j.kernel.impl.query.TransactionalContext
 import org.neo4j.kernel.impl.util.ValueUtils
 
 import scala.collection.JavaConverters._
 import scala.collection.mutable
 import scala.util.Try
 
-/* I exist so my users can have a restartable database that is lazily created */
+object RestartableDatabase {
+  // Databases may be created concurrently, see QueryRunner
+  private val folderCounter = new AtomicLong()
+}
+
+/* I exist so my users can have a restartable database that is lazily created.
+ * After the first restart, the freshly initialized store is copied to a snapshot folder, and later restarts copy it back
+ * instead of running the init queries again. The copy is a real copy: store files are written in place, so hard links
+ * would let the restored database change the snapshot. Init code may do more than write to the store, so it disables
+ * snapshots. */
 class RestartableDatabase(init: RunnableInitialization)
   extends GraphIcing with ExecutionEngineHelper {
 
@@ -62,6 +74,8 @@ class RestartableDatabase(init: RunnableInitialization)
   private var _failures: Seq[QueryRunResult] = null
   private var _markedForRestart = false
   private var _login: Option[(String, String)] = None
+  private var snapshotFolder: File = _
+  private var restarts = 0
 
   /*
   This is the public way of controlling when it's safe to restart the database
@@ -70,23 +84,41 @@ class RestartableDatabase(init: RunnableInitialization)
 
   private def createAndStartIfNecessary() {
     if (graph == null) {
-      dbFolder = new File("target/example-db" + System.nanoTime())
-      val config: Map[Setting[_], Object] = Map(
-        GraphDatabaseSettings.auth_enabled -> TRUE,
-        OnlineBackupSettings.online_backup_listen_address -> new SocketAddress("127.0.0.1", 0),
-        OnlineBackupSettings.online_backup_enabled ->  FALSE
-      )
-      managementService = new EnterpriseDatabaseManagementServiceBuilder(dbFolder).setConfig(config.asJava).build()
-
-      //    managementService = graphDatabaseFactory(Files.createTempDirectory("test").getParent.toFile).impermanent().setConfig(config.asJava).setInternalLogProvider(logProvider).build()
-      managementService.listDatabases().toArray().foreach { name =>
-        graphs(name.toString) = new MetaData(name.toString)
+      dbFolder = new File("target/example-db" + System.nanoTime() + "-" + RestartableDatabase.folderCounter.incrementAndGet())
+      if (snapshotFolder != null) {
+        FileUtils.copyDirectory(snapshotFolder, dbFolder)
+        start(restored = true)
+      } else {
+        start(restored = false)
+        if (restarts > 0 && init.initCode.isEmpty && graphs.values.forall(_.failures.isEmpty)) takeSnapshot()
       }
-      selectDatabase(Some(DEFAULT_DATABASE_NAME))
-      authManager = graph.getDependencyResolver.resolveDependency(classOf[EnterpriseAuthManager])
     }
   }
 
+  private def start(restored: Boolean): Unit = {
+    val config: Map[Setting[_], Object] = Map(
+      GraphDatabaseSettings.auth_enabled -> TRUE,
+      OnlineBackupSettings.online_backup_listen_address -> new SocketAddress("127.0.0.1", 0),
+      OnlineBackupSettings.online_backup_enabled ->  FALSE
+    )
+    managementService = new EnterpriseDatabaseManagementServiceBuilder(dbFolder).setConfig(config.asJava).build()
+
+    //    managementService = graphDatabaseFactory(Files.createTempDirectory("test").getParent.toFile).impermanent().setConfig(config.asJava).setInternalLogProvider(logProvider).build()
+    managementService.listDatabases().toArray().foreach { name =>
+      graphs(name.toString) = new MetaData(name.toString, restored)
+    }
+    selectDatabase(Some(DEFAULT_DATABASE_NAME))
+    authManager = graph.getDependencyResolver.resolveDependency(classOf[EnterpriseAuthManager])
+  }
+
+  private def takeSnapshot(): Unit = {
+    managementService.shutdown()
+    graphs.clear()
+    snapshotFolder = new File(dbFolder.getPath + "-snapshot")
+    FileUtils.copyDirectory(dbFolder, snapshotFolder)
+    start(restored = true)
+  }
+
   private def selectDatabase(database: Option[String]): Unit = {
     if (database.isDefined) {
       val meta = graphs(database.get)
@@ -108,6 +140,10 @@ class RestartableDatabase(init: RunnableInitialization)
 
   def shutdown() {
     restart()
+    if (snapshotFolder != null) {
+      FileUtils.deleteQuietly(snapshotFolder)
+      snapshotFolder = null
+    }
   }
 
   def login(login: Option[(String, String)]): Unit = {
@@ -124,8 +160,14 @@ class RestartableDatabase(init: RunnableInitialization)
     graph.beginTransaction(Type.IMPLICIT, loginContext)
   }
 
-  def executeWithParams(tx: InternalTransaction, q: String, params: (String, Any)*): DocsExecutionResult = {
-    val executionResult: DocsExecutionResult = try {
+  def executeWithParams(tx: InternalTransaction, q: String, params: (String, Any)*): DocsExecutionResult =
+    executeStreaming(tx, q, params: _*)(DocsExecutionResult(_, _))
+
+  /**
+   * Runs the query and hands the result to `consume`, which must consume it before returning.
+   */
+  def executeStreaming[T](tx: InternalTransaction, q: String, params: (String, Any)*)(consume: (Result, TransactionalContext) => T): T = {
+    val (consumed, updates) = try {
       val txContext = graph.transactionalContext(tx, query = q -> params.toMap)
       val subscriber = new ResultSubscriber(txContext)
       val execution = eengine.execute(q,
@@ -135,12 +177,13 @@ class RestartableDatabase(init: RunnableInitialization)
         prePopulate = false,
         subscriber)
       subscriber.init(execution)
-      DocsExecutionResult(subscriber, txContext)
+      val consumed = consume(subscriber, txContext)
+      (consumed, DocsExecutionResult.queryStatistics(subscriber).containsUpdates)
     } catch {
       case e: Throwable => _markedForRestart = true; throw e
     }
-    _markedForRestart = executionResult.queryStatistics().containsUpdates
-    executionResult
+    _markedForRestart = updates
+    consumed
   }
 
   def executeWithParams(query: DatabaseQuery, params: (String, Any)*): DocsExecutionResult = {
@@ -163,9 +206,10 @@ class RestartableDatabase(init: RunnableInitialization)
     eengine = null
     _failures = null
     _markedForRestart = false
+    restarts += 1
   }
 
-  class MetaData(database: String) extends GraphIcing with ExecutionEngineHelper {
+  class MetaData(database: String, restored: Boolean) extends GraphIcing with ExecutionEngineHelper {
     val db = managementService.database(database)
     val graph = new GraphDatabaseCypherService(db)
     val eengine = ExecutionEngineFactory.createExecutionEngineFromDb(db)
@@ -180,6 +224,9 @@ class RestartableDatabase(init: RunnableInitialization)
         init.userDefinedAggregationFunctions.foreach(procedureRegistry.registerAggregationFunction)
       }
 
+      // The store was copied from a snapshot taken after initialization
+      if (restored) return Seq.empty
+
       // Execute custom initialization code
       init.initCode.foreach(_.apply(graph))
 
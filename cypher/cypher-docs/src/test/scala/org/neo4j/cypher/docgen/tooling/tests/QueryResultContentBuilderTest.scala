@@ -73,11 +73,45 @@ class QueryResultContentBuilderTest extends Suite
     result.rows should have size 1
   }
 
-  def runQuery(query: String, init: String = ""): Content = {
+  test("should truncate result tables with more rows than the limit") {
+    val result = runQuery("UNWIND range(1, 5) AS x RETURN x", maxRows = 2).asInstanceOf[QueryResultTable]
+
+    result.rows should equal(Seq(ResultRow(Seq("1")), ResultRow(Seq("2")), ResultRow(Seq("..."))))
+    result.footer should equal("Rows: 5 (2 shown)")
+  }
+
+  test("should render the same table when streaming the result") {
+    val query = "UNWIND range(1, 5) AS x RETURN x, x * 2 AS y"
+    val materialized = runQuery(query, maxRows = 3)
+    val asserted = Seq.newBuilder[Map[String, Any]]
+    val streamed = streamQuery(query, maxRows = 3, Some(row => asserted += row))
+
+    streamed.asciiDoc(0) should equal(materialized.asciiDoc(0))
+    asserted.result().map(_("x")) should equal(Seq(1, 2, 3, 4, 5))
+  }
+
+  test("should render empty results when streaming the result") {
+    val streamed = streamQuery("MATCH (n) RETURN n")
+
+    streamed.asciiDoc(0) should equal(runQuery("MATCH (n) RETURN n").asciiDoc(0))
+  }
+
+  def streamQuery(query: String, maxRows: Int = Int.MaxValue, rowAssertion: Option[Map[String, Any] => Unit] = None): Content = {
+    val transaction = _db.beginTx()
+    try {
+      val builder = new StreamingQueryResultContentBuilder(x => x.toString, maxRows)
+      builder(transaction.execute(query), rowAssertion)
+    }
+    finally {
+      transaction.close()
+    }
+  }
+
+  def runQuery(query: String, init: String = "", maxRows: Int = Int.MaxValue): Content = {
     val transaction = _db.beginTx()
     try {
       if (init != "") transaction.execute(init)
-      val builder = new QueryResultContentBuilder(x => x.toString)
+      val builder = new QueryResultContentBuilder(x => x.toString, maxRows)
       val txContext = graph.transactionalContext(transaction.asInstanceOf[InternalTransaction], query = query -> Map())
       val subscriber = new ResultSubscriber(txContext)
       val execution = eengine.execute(query,
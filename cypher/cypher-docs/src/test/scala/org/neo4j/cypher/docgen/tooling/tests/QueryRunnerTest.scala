@@ -61,13 +61,45 @@ class QueryRunnerTest extends Suite
     result should haveATestFailureOfClass(failingQuery -> classOf[SyntaxException])
   }
 
+  test("queries without assertions are formatted while streaming") {
+    val query = "UNWIND range(1, 3) AS x RETURN x"
+    val result = runQuery(query)
+
+    result.queryResults.collect { case QueryRunResult(q, _, Right(content)) if q == query => content } match {
+      case Seq(table: RenderedQueryResultTable) =>
+        table.rowCount should equal(3)
+        table.footer should equal("Rows: 3")
+      case other =>
+        fail(s"Expected one streamed result table, got $other")
+    }
+  }
+
+  test("queries with assertions still see all rows") {
+    val result = runQuery("UNWIND range(1, 3) AS x RETURN x", ResultAssertions(r => r.columnAs[Long]("x").toList should equal(List(1, 2, 3))))
+
+    result.success should equal(true)
+  }
+
+  test("init groups are run and reported in order of first appearance") {
+    val queries = (0 until 10).map(i => s"RETURN $i AS i")
+    val contents = queries.zipWithIndex.map { case (query, i) =>
+      ContentWithInit(RunnableInitialization(Seq(s"CREATE (:Label$i)")), Some(InitializationQuery(query)), new TablePlaceHolder(NoAssertions))
+    }
+    val result = newRunner.runQueries(contents, "title")
+
+    result.queryResults.collect { case QueryRunResult(q, _, _) => q } should equal(queries)
+  }
+
   private def runQuery(query: String, assertions: QueryAssertions = NoAssertions): TestRunResult =
     run(RunnableInitialization.empty, query, new TablePlaceHolder(assertions))
 
   private def run(init: RunnableInitialization, queryText: String, content: QueryResultPlaceHolder): TestRunResult = {
-    val formatter = (_: GraphDatabaseQueryService, _: InternalTransaction) => (_: DocsExecutionResult) => NoContent
-    val runner = new QueryRunner(formatter)
-    runner.runQueries(contentsWithInit = Seq(ContentWithInit(init, Some(InitializationQuery(queryText)), content)), "title")
+    newRunner.runQueries(contentsWithInit = Seq(ContentWithInit(init, Some(InitializationQuery(queryText)), content)), "title")
+  }
+
+  private def newRunner: QueryRunner = {
+    val valueFormatter = (_: GraphDatabaseQueryService, _: InternalTransaction) => (value: Any) => String.valueOf(value)
+    new QueryRunner(valueFormatter)
   }
 
   private def haveATestFailureOfClass[EXCEPTION <: Exception](queryAndClass: (String, Class[EXCEPTION])) =
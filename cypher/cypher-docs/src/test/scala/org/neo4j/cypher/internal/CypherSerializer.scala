@@ -25,6 +25,7 @@ import java.time.temporal.TemporalAmount
 import org.neo4j.cypher.internal.runtime.QueryContext
 import org.neo4j.graphdb.spatial.Point
 import org.neo4j.graphdb.{Entity, Node, Path, Relationship}
+import org.neo4j.internal.kernel.api.{CursorFactory, NodeCursor, PropertyCursor, RelationshipScanCursor}
 import org.neo4j.io.pagecache.tracing.cursor.PageCursorTracer
 import org.neo4j.memory.EmptyMemoryTracker
 
@@ -32,56 +33,154 @@ import scala.collection.Map
 
 trait CypherSerializer {
 
+  protected def serialize(a: Any, qtx: QueryContext): String = {
+    val builder = CypherSerializer.scratch.get()
+    builder.setLength(0)
+    val cursors = new CypherSerializer.EntityCursors(qtx.transactionalContext.cursors)
+    try {
+      serializeTo(builder, a, qtx, cursors)
+    } finally {
+      cursors.close()
+    }
+    val text = builder.toString
+    if (builder.capacity > CypherSerializer.MaxRetainedCapacity) {
+      // Do not hold on to the buffer of an unusually large value
+      CypherSerializer.scratch.set(new StringBuilder(CypherSerializer.InitialCapacity))
+    }
+    text
+  }
+
   /*
   Be explicit to force the decision how to represent each type.
   Don't use internal types.
    */
-  protected def serialize(a: Any, qtx: QueryContext): String = a match {
-    case x: Node                  => x.toString + serializeProperties(x, qtx)
-    case x: Relationship          => ":" + x.getType.name() + "[" + x.getId + "]" + serializeProperties(x, qtx)
-    case x: Path                  => x.toString
-    case x: Map[_, _]             => makeString(x.asInstanceOf[Map[String, Any]], qtx)
-    case x: Seq[_]                => x.map(elem => serialize(elem, qtx)).mkString("[", ",", "]")
-    case x: Array[_]              => x.map(elem => serialize(elem, qtx)).mkString("[", ",", "]")
-    case x: String                => "\"" + x + "\""
-    case x: Integer               => x.toString
-    case x: Long                  => x.toString
-    case x: Double                => x.toString
-    case x: Boolean               => x.toString
-    case x: TemporalAmount        => x.toString
-    case x: LocalDate             => x.toString
-    case x: LocalDateTime         => x.toString
-    case x: LocalTime             => x.toString
-    case x: OffsetTime            => x.toString
-    case x: ZonedDateTime         => x.toString
-    case x: Point                 => x.toString
-    case null                     => "<null>"
+  protected def serializeTo(builder: StringBuilder, a: Any, qtx: QueryContext, cursors: CypherSerializer.EntityCursors): Unit = a match {
+    case x: Node                  => builder.append(x.toString); serializeProperties(builder, x, qtx, cursors)
+    case x: Relationship          => builder.append(':').append(x.getType.name()).append('[').append(x.getId).append(']'); serializeProperties(builder, x, qtx, cursors)
+    case x: Path                  => builder.append(x.toString)
+    case x: Map[_, _]             => makeString(builder, x.asInstanceOf[Map[String, Any]], qtx, cursors)
+    case x: Seq[_]                => serializeAll(builder, x.iterator, qtx, cursors)
+    case x: Array[_]              => serializeAll(builder, x.iterator, qtx, cursors)
+    case x: String                => builder.append('"').append(x).append('"')
+    case x: Integer               => builder.append(x.intValue())
+    case x: Long                  => builder.append(x)
+    case x: Double                => builder.append(x)
+    case x: Boolean               => builder.append(x)
+    case x: TemporalAmount        => builder.append(x.toString)
+    case x: LocalDate             => builder.append(x.toString)
+    case x: LocalDateTime         => builder.append(x.toString)
+    case x: LocalTime             => builder.append(x.toString)
+    case x: OffsetTime            => builder.append(x.toString)
+    case x: ZonedDateTime         => builder.append(x.toString)
+    case x: Point                 => builder.append(x.toString)
+    case null                     => builder.append("<null>")
     case x                        => throw new IllegalArgumentException(s"Type ${x.getClass} must be explicitly handled.")
   }
 
-  protected def serializeProperties(x: Entity, qtx: QueryContext): String = {
-    val cursors = qtx.transactionalContext.cursors
-    val property = cursors.allocatePropertyCursor(PageCursorTracer.NULL, EmptyMemoryTracker.INSTANCE)
-    val (propertyText, id, deleted) = x match {
+  /*
+  Walks the property chain of the entity once, with the cursors of the current serialization,
+  instead of looking every property up again by its key.
+   */
+  protected def serializeProperties(builder: StringBuilder, x: Entity, qtx: QueryContext, cursors: CypherSerializer.EntityCursors): Unit = {
+    val (deleted, property) = x match {
       case n: Node =>
-        val ops = qtx.nodeOps
-        val node = cursors.allocateNodeCursor(PageCursorTracer.NULL)
-        ((id: Long) => ops.propertyKeyIds(id, node, property).map(pkId => qtx.getPropertyKeyName(pkId) + ":" + serialize(ops.getProperty(id, pkId, node, property, throwOnDeleted = true).asObject(), qtx)),
-          n.getId, qtx.nodeOps.isDeletedInThisTx(n.getId))
+        if (qtx.nodeOps.isDeletedInThisTx(n.getId)) (true, null)
+        else {
+          val node = cursors.node
+          qtx.transactionalContext.dataRead.singleNode(n.getId, node)
+          (false, if (node.next()) { node.properties(cursors.property); cursors.property } else null)
+        }
       case r: Relationship =>
-        val ops = qtx.relationshipOps
-        val rel = cursors.allocateRelationshipScanCursor(PageCursorTracer.NULL)
-        ((id: Long) => ops.propertyKeyIds(id, rel, property).map(pkId => qtx.getPropertyKeyName(pkId) + ":" + serialize(ops.getProperty(id, pkId, rel, property, throwOnDeleted = true).asObject(), qtx)),
-          r.getId, qtx.relationshipOps.isDeletedInThisTx(r.getId))
+        if (qtx.relationshipOps.isDeletedInThisTx(r.getId)) (true, null)
+        else {
+          val rel = cursors.relationship
+          qtx.transactionalContext.dataRead.singleRelationship(r.getId, rel)
+          (false, if (rel.next()) { rel.properties(cursors.property); cursors.property } else null)
+        }
+    }
+
+    builder.append('{')
+    if (deleted) {
+      builder.append("deleted")
+    } else if (property != null) {
+      var first = true
+      while (property.next()) {
+        if (!first) builder.append(',')
+        builder.append(qtx.getPropertyKeyName(property.propertyKey())).append(':')
+        serializeTo(builder, property.propertyValue().asObject(), qtx, cursors)
+        first = false
+      }
     }
+    builder.append('}')
+  }
 
-    val keyValStrings = if (deleted) Array("deleted")
-    else propertyText(id)
+  private def serializeAll(builder: StringBuilder, elements: Iterator[Any], qtx: QueryContext, cursors: CypherSerializer.EntityCursors): Unit = {
+    builder.append('[')
+    var first = true
+    elements.foreach { elem =>
+      if (!first) builder.append(',')
+      serializeTo(builder, elem, qtx, cursors)
+      first = false
+    }
+    builder.append(']')
+  }
 
-    keyValStrings.mkString("{", ",", "}")
+  private def makeString(builder: StringBuilder, m: Map[String, Any], qtx: QueryContext, cursors: CypherSerializer.EntityCursors): Unit = {
+    builder.append('{')
+    var first = true
+    m.foreach {
+      case (k, v) =>
+        if (!first) builder.append(", ")
+        builder.append(k).append(" -> ")
+        serializeTo(builder, v, qtx, cursors)
+        first = false
+    }
+    builder.append('}')
   }
+}
+
+object CypherSerializer {
 
-  private def makeString(m: Map[String, Any], qtx: QueryContext) = m.map {
-    case (k, v) => k + " -> " + serialize(v, qtx)
-  }.mkString("{", ", ", "}")
+  /* Builders that grew beyond this while serializing a huge value are not kept around */
+  private val MaxRetainedCapacity = 64 * 1024
+
+  private val InitialCapacity = 256
+
+  private val scratch = new ThreadLocal[StringBuilder] {
+    override def initialValue(): StringBuilder = new StringBuilder(InitialCapacity)
+  }
+
+  /**
+    * The cursors used while serializing one value. They are allocated on first use, shared by all
+    * entities within the value, and closed when the value has been serialized.
+    */
+  class EntityCursors(factory: CursorFactory) extends AutoCloseable {
+    private var _property: PropertyCursor = _
+    private var _node: NodeCursor = _
+    private var _relationship: RelationshipScanCursor = _
+
+    def property: PropertyCursor = {
+      if (_property == null) _property = factory.allocatePropertyCursor(PageCursorTracer.NULL, EmptyMemoryTracker.INSTANCE)
+      _property
+    }
+
+    def node: NodeCursor = {
+      if (_node == null) _node = factory.allocateNodeCursor(PageCursorTracer.NULL)
+      _node
+    }
+
+    def relationship: RelationshipScanCursor = {
+      if (_relationship == null) _relationship = factory.allocateRelationshipScanCursor(PageCursorTracer.NULL)
+      _relationship
+    }
+
+    override def close(): Unit = {
+      if (_property != null) _property.close()
+      if (_node != null) _node.close()
+      if (_relationship != null) _relationship.close()
+      _property = null
+      _node = null
+      _relationship = null
+    }
+  }
 }
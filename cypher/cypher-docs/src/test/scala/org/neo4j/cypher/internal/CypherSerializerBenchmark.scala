@@ -0,0 +1,92 @@
+/*
+ * Copyright (c) "Neo4j"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal
+
+import java.lang.management.ManagementFactory
+import java.nio.file.Files
+import java.util.concurrent.TimeUnit
+
+import org.apache.commons.io.FileUtils
+import org.neo4j.configuration.GraphDatabaseSettings.DEFAULT_DATABASE_NAME
+import org.neo4j.cypher.docgen.tooling.{DocsExecutionResult, ValueFormatter}
+import org.neo4j.cypher.internal.javacompat.GraphDatabaseCypherService
+import org.neo4j.dbms.api.DatabaseManagementServiceBuilder
+import org.neo4j.kernel.impl.coreapi.InternalTransaction
+
+import scala.collection.JavaConverters._
+
+/**
+  * Serializes large results of entity heavy rows through the ValueFormatter used by the docs,
+  * and reports rows per second and bytes allocated per row.
+  *
+  * Run with: CypherSerializerBenchmark [nodes] [properties per entity] [rounds]
+  */
+object CypherSerializerBenchmark {
+
+  def main(args: Array[String]): Unit = {
+    val nodes = if (args.length > 0) args(0).toInt else 20000
+    val properties = if (args.length > 1) args(1).toInt else 8
+    val rounds = if (args.length > 2) args(2).toInt else 5
+
+    val dbFolder = Files.createTempDirectory("serializer-benchmark").toFile
+    val managementService = new DatabaseManagementServiceBuilder(dbFolder).build()
+    try {
+      val db = managementService.database(DEFAULT_DATABASE_NAME)
+      val queryService = new GraphDatabaseCypherService(db)
+      val props = (0 until properties).map(i => s"p$i: i + $i").mkString(", ")
+      val tx = db.beginTx()
+      try {
+        tx.execute(s"UNWIND range(1, $nodes) AS i CREATE (a:A {$props})-[:R {$props}]->(b:B {name: 'b' + i, tags: ['x', 'y', 'z']})").close()
+        tx.commit()
+      } finally {
+        tx.close()
+      }
+
+      val threads = ManagementFactory.getThreadMXBean.asInstanceOf[com.sun.management.ThreadMXBean]
+      val thread = Thread.currentThread().getId
+      for (round <- 1 to rounds) {
+        val tx = db.beginTx()
+        try {
+          val formatter = new ValueFormatter(queryService, tx.asInstanceOf[InternalTransaction])
+          val result = tx.execute("MATCH (a:A)-[r:R]->(b:B) RETURN a, r, b, [a, b] AS pair, {start: a, end: b} AS ends")
+          val columns = result.columns().asScala
+          val allocatedBefore = threads.getThreadAllocatedBytes(thread)
+          val start = System.nanoTime()
+          var rows = 0L
+          var chars = 0L
+          while (result.hasNext) {
+            val row = DocsExecutionResult.scalaValues.asDeepScalaMap(result.next())
+            columns.foreach(column => chars += formatter(row(column)).length)
+            rows += 1
+          }
+          val elapsed = System.nanoTime() - start
+          val allocated = threads.getThreadAllocatedBytes(thread) - allocatedBefore
+          println(f"round $round: $rows rows in ${TimeUnit.NANOSECONDS.toMillis(elapsed)}%d ms, " +
+            f"${rows * 1e9 / elapsed}%.0f rows/s, ${allocated / math.max(rows, 1)}%d bytes allocated/row, $chars chars")
+        } finally {
+          tx.close()
+        }
+      }
+    } finally {
+      managementService.shutdown()
+      FileUtils.deleteQuietly(dbFolder)
+    }
+  }
+}
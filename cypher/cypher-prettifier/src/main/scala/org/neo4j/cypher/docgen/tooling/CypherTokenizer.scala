@@ -0,0 +1,296 @@
+/*
+ * Copyright (c) "Neo4j"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.docgen.tooling
+
+import java.util.Locale
+
+import scala.collection.mutable
+
+/**
+  * A hand written, single pass replacement for [[PrettifierParser]] that produces the same tokens.
+  *
+  * Keywords are found by reading the word at the current position and looking it up in a table of
+  * the keyword alternatives starting with that word, in the order the parser tries them, instead of
+  * trying every alternative in turn. Like the parser, it stops at the first input it cannot tokenize
+  * and ignores the rest.
+  */
+class CypherTokenizer(val keepMyNewlines: Boolean) {
+
+  def tokenize(input: String): Seq[SyntaxToken] = new Scan(input).tokens(interior = false)
+
+  private class Scan(input: String) {
+    private val length = input.length
+    private var pos = 0
+
+    def tokens(interior: Boolean): Seq[SyntaxToken] = {
+      val buffer = new mutable.ArrayBuffer[SyntaxToken]
+      var token = next(interior)
+      while (token != null) {
+        buffer += token
+        val mark = pos
+        pos = separator(pos)
+        token = next(interior)
+        if (token == null) pos = mark
+      }
+      buffer.toList
+    }
+
+    private def next(interior: Boolean): SyntaxToken = {
+      if (pos >= length) return null
+      val start = pos
+
+      val keyword = if (interior) matchKeyword(CypherTokenizer.interiorKeywords) else matchKeyword(CypherTokenizer.keywords)
+      if (keyword != null) return keyword
+
+      val c = input.charAt(pos)
+      if (c == ',') {
+        pos += 1
+        return Comma
+      }
+      if (c == '\'' || c == '"') {
+        val text = string(c)
+        if (text != null) return text
+      }
+      while (pos < length && CypherTokenizer.AnyTextStop.indexOf(input.charAt(pos)) < 0) pos += 1
+      if (pos > start) return AnyText(input.substring(start, pos))
+
+      if (keepMyNewlines && (c == '\n' || c == '\r')) {
+        pos += 1
+        return NewlineToken(String.valueOf(c))
+      }
+      val open = CypherTokenizer.GroupOpen.indexOf(c)
+      if (open >= 0) return group(c, CypherTokenizer.GroupClose.charAt(open))
+      null
+    }
+
+    private def matchKeyword(table: java.util.Map[String, Array[CypherTokenizer.Keyword]]): SyntaxToken = {
+      var end = pos
+      while (end < length && CypherTokenizer.isIdentifierPart(input.charAt(end))) end += 1
+      if (end == pos) return null
+      val candidates = table.get(input.substring(pos, end).toUpperCase(Locale.ROOT))
+      if (candidates == null) return null
+
+      var i = 0
+      while (i < candidates.length) {
+        val token = matchKeyword(candidates(i))
+        if (token != null) return token
+        i += 1
+      }
+      null
+    }
+
+    private def matchKeyword(keyword: CypherTokenizer.Keyword): SyntaxToken = {
+      var p = pos
+      var joinStart = -1
+      var joinEnd = -1
+      var w = 0
+      while (w < keyword.words.length) {
+        if (w > 0) {
+          if (w == keyword.joinAt) joinEnd = p
+          p = whitespace(p, stopAtNewline = false)
+          if (w == keyword.joinAt) joinStart = p
+        }
+        p = word(p, keyword.words(w))
+        if (p < 0) return null
+        w += 1
+      }
+      val start = pos
+      pos = p
+      keyword.kind match {
+        case CypherTokenizer.NonBreaking => NonBreakingKeywords(input.substring(start, p))
+        case _ if joinStart >= 0 => BreakingKeywords(input.substring(start, joinEnd) + " " + input.substring(joinStart, p))
+        case _ => BreakingKeywords(input.substring(start, p))
+      }
+    }
+
+    /* The position after the word, if the input has it at p in any case followed by a non identifier character, otherwise -1 */
+    private def word(p: Int, word: String): Int = {
+      val end = p + word.length
+      if (end > length) return -1
+      var i = 0
+      while (i < word.length) {
+        val c = input.charAt(p + i)
+        val w = word.charAt(i)
+        if (c != w && c != Character.toLowerCase(w)) return -1
+        i += 1
+      }
+      if (end < length && CypherTokenizer.isIdentifierPart(input.charAt(end))) -1 else end
+    }
+
+    private def string(quote: Char): EscapedText = {
+      val text = new java.lang.StringBuilder
+      var p = pos + 1
+      while (p < length) {
+        val c = input.charAt(p)
+        if (c == quote) {
+          pos = p + 1
+          return EscapedText(text.toString, quote)
+        } else if (c == '\\') {
+          p = escape(p + 1, text)
+          if (p < 0) return null
+        } else {
+          text.append(c)
+          p += 1
+        }
+      }
+      null
+    }
+
+    private def escape(p: Int, text: java.lang.StringBuilder): Int = {
+      if (p >= length) return -1
+      input.charAt(p) match {
+        case c@('\\' | '\'' | '"') => text.append(c); p + 1
+        case 'b' => text.append('\b'); p + 1
+        case 'f' => text.append('\f'); p + 1
+        case 'n' => text.append('\n'); p + 1
+        case 'r' => text.append('\r'); p + 1
+        case 't' => text.append('\t'); p + 1
+        case 'u' => codePoint(p + 1, 4, text)
+        case 'U' => codePoint(p + 1, 8, text)
+        case _ => -1
+      }
+    }
+
+    private def codePoint(p: Int, digits: Int, text: java.lang.StringBuilder): Int = {
+      if (p + digits > length) return -1
+      var i = 0
+      while (i < digits) {
+        if (!CypherTokenizer.isHexDigit(input.charAt(p + i))) return -1
+        i += 1
+      }
+      text.appendCodePoint(Integer.parseInt(input.substring(p, p + digits), 16))
+      p + digits
+    }
+
+    private def group(open: Char, close: Char): GroupToken = {
+      val start = pos
+      pos = separator(pos + 1)
+      val inner = tokens(interior = true)
+      pos = separator(pos)
+      if (pos < length && input.charAt(pos) == close) {
+        pos += 1
+        GroupToken(String.valueOf(open), String.valueOf(close), inner)
+      } else {
+        pos = start
+        null
+      }
+    }
+
+    private def separator(p: Int): Int = whitespace(p, stopAtNewline = keepMyNewlines)
+
+    /* White space and comments, the way the WS and nonBreakWS rules of the parser read them */
+    private def whitespace(from: Int, stopAtNewline: Boolean): Int = {
+      var p = from
+      var more = true
+      while (more && p < length) {
+        val c = input.charAt(p)
+        if (CypherTokenizer.isWhitespace(c) && !(stopAtNewline && (c == '\n' || c == '\r'))) {
+          p += 1
+        } else if (c == '/') {
+          val end = comment(p)
+          if (end < 0) more = false else p = end
+        } else {
+          more = false
+        }
+      }
+      p
+    }
+
+    private def comment(p: Int): Int = {
+      if (p + 1 >= length) return -1
+      input.charAt(p + 1) match {
+        case '*' =>
+          val close = input.indexOf("*/", p + 2)
+          if (close < 0) -1 else close + 2
+        case '/' =>
+          var end = p + 2
+          while (end < length && input.charAt(end) != '\n' && input.charAt(end) != '\r') end += 1
+          if (end == length) end
+          else if (input.charAt(end) == '\n') end + 1
+          else if (end + 1 == length) end + 1
+          else if (input.charAt(end + 1) == '\n') end + 2
+          else -1
+        case _ => -1
+      }
+    }
+  }
+}
+
+object CypherTokenizer {
+
+  private sealed trait Kind
+  private case object NonBreaking extends Kind
+  private case object Breaking extends Kind
+
+  /* joinAt is the index of the word that starts the second keyword of a joined keyword, or -1 */
+  private case class Keyword(words: Array[String], kind: Kind, joinAt: Int = -1)
+
+  private val AnyTextStop = " \n\r\t\f(){}[]"
+  private val GroupOpen = "({["
+  private val GroupClose = ")}]"
+
+  private val nonBreakingKeywords = Seq(
+    "WITH HEADERS", "IS UNIQUE", "ALL", "NULL", "TRUE", "FALSE", "DISTINCT", "END", "NOT", "HAS", "ANY", "NONE", "SINGLE", "OR",
+    "XOR", "AND", "AS", "IN", "IS", "UNIQUE", "BY", "ASSERT", "ASC", "DESC", "SCAN", "FROM", "EXISTS", "STARTS WITH", "ENDS WITH",
+    "CONTAINS", "YIELD", "FOR", "IF NOT EXISTS", "IF EXISTS")
+
+  private val plainBreakingKeywords = Seq(
+    "LOAD CSV", "ORDER BY", "CREATE INDEX ON", "CREATE INDEX", "DROP INDEX ON", "DROP INDEX", "CREATE CONSTRAINT ON",
+    "CREATE CONSTRAINT", "DROP CONSTRAINT ON", "DROP CONSTRAINT", "USING PERIODIC COMMIT", "USING INDEX", "USING SCAN",
+    "USING JOIN ON", "OPTIONAL MATCH", "DETACH DELETE", "START", "MATCH", "WHERE", "WITH", "RETURN", "SKIP", "LIMIT",
+    "ORDER BY", "ASC", "DESC", "ON", "WHEN", "CASE", "THEN", "ELSE", "ASSERT", "SCAN", "CALL", "UNION", "UNWIND")
+
+  private val joinedBreakingKeywords = Seq("ON CREATE", "ON MATCH")
+
+  private val updatingBreakingKeywords = Seq("CREATE", "SET", "DELETE", "REMOVE", "FOREACH", "MERGE")
+
+  private def words(keyword: String): Array[String] = keyword.split(' ')
+
+  /* All keyword alternatives, in the order PrettifierParser tries them */
+  private val orderedKeywords: Seq[Keyword] =
+    nonBreakingKeywords.map(k => Keyword(words(k), NonBreaking)) ++
+      (for (joined <- joinedBreakingKeywords; updating <- updatingBreakingKeywords)
+        yield Keyword(words(joined) ++ words(updating), Breaking, words(joined).length)) ++
+      plainBreakingKeywords.map(k => Keyword(words(k), Breaking)) ++
+      updatingBreakingKeywords.map(k => Keyword(words(k), Breaking))
+
+  private def byFirstWord(keywords: Seq[Keyword]): java.util.Map[String, Array[Keyword]] = {
+    val table = new java.util.HashMap[String, Array[Keyword]]()
+    keywords.groupBy(_.words.head).foreach {
+      case (first, _) => table.put(first, keywords.filter(_.words.head == first).toArray)
+    }
+    table
+  }
+
+  private val keywords = byFirstWord(orderedKeywords)
+
+  private val interiorKeywords = {
+    val table = new java.util.HashMap[String, Array[Keyword]](keywords)
+    val where = Keyword(Array("WHERE"), NonBreaking)
+    table.put("WHERE", where +: keywords.get("WHERE"))
+    table
+  }
+
+  private def isIdentifierPart(c: Char): Boolean = Character.isJavaIdentifierPart(c)
+
+  private def isHexDigit(c: Char): Boolean = (c >= '0' && c <= '9') || (c >= 'a' && c <= 'f') || (c >= 'A' && c <= 'F')
+
+  private def isWhitespace(c: Char): Boolean = Character.isWhitespace(c) || Character.isSpaceChar(c)
+}
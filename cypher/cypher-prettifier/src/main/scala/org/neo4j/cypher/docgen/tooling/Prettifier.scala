@@ -68,37 +68,70 @@ trait Prettifying {
 
 case object Prettifier extends Prettifying {
 
+  /*
+  The same queries get prettified over and over again, both when they are run and when they are rendered,
+  so results are kept in a bounded LRU cache. Parsers are reused per thread, as they are not thread safe.
+   */
+  val cacheSize: Int = Integer.getInteger("docs.prettifier.cache.size", 1024)
+
+  private val cache = new java.util.LinkedHashMap[(String, Boolean), String](16, 0.75f, true) {
+    override def removeEldestEntry(eldest: java.util.Map.Entry[(String, Boolean), String]): Boolean = size() > cacheSize
+  }
+
+  private val parsers = new ThreadLocal[Array[PrettifierParser]] {
+    override def initialValue(): Array[PrettifierParser] = Array(new PrettifierParser(false), new PrettifierParser(true))
+  }
+
   override def apply(input: String, keepMyNewlines: Boolean = false): String = {
-    val parser = new PrettifierParser(keepMyNewlines)
-    val builder = new StringBuilder
+    val key = (input, keepMyNewlines)
+    val cached = cache.synchronized(cache.get(key))
+    if (cached != null) cached
+    else {
+      val prettified = prettify(input, keepMyNewlines)
+      cache.synchronized(cache.put(key, prettified))
+      prettified
+    }
+  }
 
-    val parsedTokens = parser.parse(input)
-    var tokens = flattenTokens(parsedTokens)
+  /**
+    * Prettifies the input without looking in or adding to the cache.
+    */
+  def prettify(input: String, keepMyNewlines: Boolean): String = {
+    val parser = parsers.get()(if (keepMyNewlines) 1 else 0)
+    render(parser.parse(input), input.length)
+  }
 
-    while (tokens.nonEmpty) {
-      val tail = tokens.tail
-      builder ++= insertBreak(tokens.head, tail)
-      tokens = tail
+  /**
+    * Lays out parsed tokens, uppercasing keywords and breaking lines before breaking keywords.
+    */
+  def render(parsedTokens: Seq[SyntaxToken], sizeHint: Int = 64): String = {
+    val tokens = flattenTokens(parsedTokens)
+    val builder = new StringBuilder(sizeHint + 16)
+
+    var i = 0
+    while (i < tokens.length) {
+      appendWithBreak(builder, tokens(i), if (i + 1 < tokens.length) tokens(i + 1) else null)
+      i += 1
     }
 
     builder.toString()
   }
 
-  def flattenTokens(tokens: Seq[SyntaxToken]): Seq[SyntaxToken] = {
-    val tokenBuilder: mutable.Builder[SyntaxToken, Seq[SyntaxToken]] = Seq.newBuilder[SyntaxToken]
-    flattenTokens(tokens, tokenBuilder)
-    tokenBuilder.result()
+  def flattenTokens(tokens: Seq[SyntaxToken]): Array[SyntaxToken] = {
+    val tokenBuffer = new mutable.ArrayBuffer[SyntaxToken](tokens.size * 2)
+    flattenTokens(tokens, tokenBuffer)
+    tokenBuffer.toArray
   }
 
-  def flattenTokens(tokens: Seq[SyntaxToken], tokenBuilder: mutable.Builder[SyntaxToken, Seq[SyntaxToken]]) {
+  def flattenTokens(tokens: Seq[SyntaxToken], tokenBuffer: mutable.ArrayBuffer[SyntaxToken]) {
     for (token <- tokens) {
       token match {
         case GroupToken(start, close, inner) =>
-          tokenBuilder += OpenGroup(start)
-          flattenTokens(inner, tokenBuilder)
-          tokenBuilder += CloseGroup(close)
+          tokenBuffer += OpenGroup(start)
+          flattenTokens(inner, tokenBuffer)
+          tokenBuffer += CloseGroup(close)
         case _ =>
-          tokenBuilder += token
+          tokenBuffer += token
       }
     }
   }
@@ -107,53 +140,74 @@ case object Prettifier extends Prettifying {
   val newline: String = System.lineSeparator()
 
   def insertBreak(token: SyntaxToken, tail: Seq[SyntaxToken]): String = {
-    if (tail.isEmpty)
-      token.toString
-    else {
-      (token, tail.head) match {
+    val builder = new StringBuilder
+    appendWithBreak(builder, token, tail.headOption.orNull)
+    builder.toString()
+  }
+
+  /**
+    * Appends the token, followed by the space or line break that belongs between it and `next`.
+    * `next` is `null` for the last token.
+    */
+  def appendWithBreak(builder: StringBuilder, token: SyntaxToken, next: SyntaxToken): Unit = {
+    builder ++= token.toString
+    if (next != null) {
+      builder ++= ((token, next) match {
         // FOREACH : <NEXT>
-        case (_: SyntaxToken,         _) if token.text.endsWith("|") => token.toString + space
-        case (_: SyntaxToken,         _) if token.text.endsWith(":") => token.toString + space
+        case (_: SyntaxToken,         _) if token.text.endsWith("|") => space
+        case (_: SyntaxToken,         _) if token.text.endsWith(":") => space
 
         // don't put space or newline after or before a newline token
-        case (_:NewlineToken,         _)                             => token.toString
-        case (_,                      _:NewlineToken)                => token.toString
+        case (_:NewlineToken,         _)                             => ""
+        case (_,                      _:NewlineToken)                => ""
 
         // <NON-BREAKING-KW> <NEXT>
-        case (_: NonBreakingKeywords, _:SyntaxToken)                 => token.toString + space
+        case (_: NonBreakingKeywords, _:SyntaxToken)                 => space
 
         // <HEAD> <BREAKING-KW>
-        case (_:SyntaxToken,          _:BreakingKeywords)            => token.toString + newline
+        case (_:SyntaxToken,          _:BreakingKeywords)            => newline
 
         // Never break between keywords
-        case (_:KeywordToken,         _:KeywordToken)                => token.toString + space
+        case (_:KeywordToken,         _:KeywordToken)                => space
 
         // <KW> <OPEN-GROUP>
-        case (_:KeywordToken,         _:OpenGroup)                   => token.toString + space
+        case (_:KeywordToken,         _:OpenGroup)                   => space
 
         // <{> <NEXT>
-        case (_@OpenGroup("{"),       _:SyntaxToken)                 => token.toString + space
+        case (_@OpenGroup("{"),       _:SyntaxToken)                 => space
 
         // <CLOSE-GROUP> <KW>
-        case (_:CloseGroup,           _:KeywordToken)                => token.toString + space
+        case (_:CloseGroup,           _:KeywordToken)                => space
 
         // <GROUPING> <NEXT>
-        case (_:GroupingText,         _:SyntaxToken)                 => token.toString
+        case (_:GroupingText,         _:SyntaxToken)                 => ""
 
         // <HEAD> <{>
-        case (_:SyntaxToken,          OpenGroup("{"))                => token.toString + space
+        case (_:SyntaxToken,          OpenGroup("{"))                => space
 
         // <HEAD> <}>
-        case (_:SyntaxToken,          CloseGroup("}"))               => token.toString + space
+        case (_:SyntaxToken,          CloseGroup("}"))               => space
 
         // <HEAD> <GROUPING>
-        case (_:SyntaxToken,          _:GroupingText)                => token.toString
+        case (_:SyntaxToken,          _:GroupingText)                => ""
 
         // <HEAD> <COMMA>
-        case (_:SyntaxToken,          Comma)                         => token.toString
+        case (_:SyntaxToken,          Comma)                         => ""
         // default
-        case _                                                       => token.toString + space
-      }
+        case _                                                       => space
+      })
     }
   }
 }
+
+/**
+  * Prettifies like [[Prettifier]], but reads the query with the hand written [[CypherTokenizer]]
+  * instead of the parboiled [[PrettifierParser]]. Meant for large generated query files.
+  */
+case object TokenizingPrettifier extends Prettifying {
+
+  private val tokenizers = Array(new CypherTokenizer(false), new CypherTokenizer(true))
+
+  override def apply(input: String, keepMyNewlines: Boolean = false): String =
+    Prettifier.render(tokenizers(if (keepMyNewlines) 1 else 0).tokenize(input), input.length)
+}
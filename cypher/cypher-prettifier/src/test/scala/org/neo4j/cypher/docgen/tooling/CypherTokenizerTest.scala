@@ -0,0 +1,85 @@
+/*
+ * Copyright (c) "Neo4j"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.docgen.tooling
+
+/**
+  * Runs every query of [[PrettifierTest]] through both the parboiled parser and the hand written tokenizer,
+  * and requires them to produce the same tokens and the same prettified output.
+  */
+class CypherTokenizerTest extends PrettifierTest {
+
+  override protected def prettifier: Prettifying = new Prettifying {
+    override def apply(input: String, keepMyNewlines: Boolean): String = {
+      assertSameTokens(input, keepMyNewlines)
+      val prettified = TokenizingPrettifier(input, keepMyNewlines)
+      prettified should equal(Prettifier.prettify(input, keepMyNewlines))
+      prettified
+    }
+  }
+
+  private val edgeCases = Seq(
+    "",
+    "   match (n) return n",
+    "match (n) return n   ",
+    "MATCH (n)\r\nWHERE n.x = 1\rRETURN n\n",
+    "order/* between */by n.name",
+    "order // line comment\nby n.name",
+    "match (n) // trailing comment",
+    "match (n) /* unclosed comment",
+    "merge (n) on   create set n.x = 1 on match  remove n.y",
+    "merge (n) on create /* c */ set n.x = 1",
+    "return 'it\\'s', \"say \\\"hi\\\"\", 'tab\\there', '\\u00e9'",
+    "return 'unclosed, n",
+    "return 'bad \\q escape' as x",
+    "return [x in [1, [2, (3)], {a: {b: 1}}] where x > 1 | x] as nested",
+    "match (a)-[:KNOWS*1..3]->(b) where not exists((a)-->()) return a",
+    "match (n) return n.orderby, n.`order by`, $param, n.with_headers",
+    "match (n) return count(n",
+    "create constraint name if not exists on (n:Label) assert n.prop is unique",
+    "call { match (n) return n } return n",
+    "WITH 1 AS x\n\n  UNWIND [1,\n2] AS y\n// comment\nRETURN x, y",
+    "RETURN CASE WHEN true THEN 'yes' ELSE 'no' END AS answer"
+  )
+
+  test("tokenizes edge cases like the parser") {
+    for (query <- edgeCases; keepMyNewlines <- Seq(false, true)) {
+      assertSameTokens(query, keepMyNewlines)
+    }
+  }
+
+  test("tokenizes the benchmark corpus like the parser") {
+    for (query <- PrettifierBenchmark.corpus; keepMyNewlines <- Seq(false, true)) {
+      assertSameTokens(query, keepMyNewlines)
+    }
+  }
+
+  test("tokenizes large inputs like the parser") {
+    val input = Iterator.continually(PrettifierBenchmark.corpus).flatten.take(500).mkString("\n")
+
+    assertSameTokens(input, keepMyNewlines = false)
+    assertSameTokens(input, keepMyNewlines = true)
+  }
+
+  private def assertSameTokens(input: String, keepMyNewlines: Boolean): Unit = {
+    withClue(s"keepMyNewlines=$keepMyNewlines, input: $input\n") {
+      new CypherTokenizer(keepMyNewlines).tokenize(input) should equal(new PrettifierParser(keepMyNewlines).parse(input))
+    }
+  }
+}
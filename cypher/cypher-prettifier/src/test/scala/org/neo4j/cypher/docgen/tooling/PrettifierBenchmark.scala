@@ -0,0 +1,95 @@
+/*
+ * Copyright (c) "Neo4j"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.docgen.tooling
+
+import java.util.concurrent.TimeUnit
+
+/**
+  * Measures prettification of a corpus of queries taken from the manual, both through the cache,
+  * the way the documentation build calls it, and uncached, with the parser and with the tokenizer.
+  * Then compares parser and tokenizer on a megabyte sized input.
+  *
+  * Run with: PrettifierBenchmark [seconds per measurement]
+  */
+object PrettifierBenchmark {
+
+  val corpus: Seq[String] = Seq(
+    "match (n) where n.name='B' return n",
+    "match (a) where a.name='A' return a.age as SomethingTotallyDifferent",
+    "match david--otherPerson-->() where david.name='David' with otherPerson, count(*) as foaf where foaf > 1 return otherPerson",
+    "match p=n foreach(x in p | create x--() set x.foo = 'bar') return distinct p;",
+    "create constraint on (person:Person) assert person.age is unique",
+    "create index for (p:Person) on (p.name)",
+    "merge (keanu:Person {name: 'Keanu Reeves'}) on create set keanu.created = timestamp() on match set keanu.lastSeen = timestamp() return keanu.name, keanu.created, keanu.lastSeen",
+    "using periodic commit 500 load csv with headers from 'file:///artists.csv' as line create (:Artist {name: line.Name, year: toInteger(line.Year)})",
+    "match (charlie:Person {name: 'Charlie Sheen'})-[:ACTED_IN]->(movie:Movie) optional match (movie)<-[r:DIRECTED]-(director) return movie.title, director.name order by movie.title desc skip 1 limit 10",
+    "match (a:Person {name: 'Andy'}), (b:Person {name: 'Bob'}) match p = shortestPath((a)-[:KNOWS*..15]-(b)) where all(x in nodes(p) where x.age > 20) return p",
+    "unwind [1, 2, 3, null] as x with x where x is not null return collect(x) as list",
+    "match (n) call db.indexes yield name, state where state = 'ONLINE' return name",
+    "match (n:Person) return case n.eyes when 'blue' then 1 when 'brown' then 2 else 3 end as result",
+    "match (a:A)-->(b:B) using join on b return a.prop",
+    "match (n) with n, [x in range(0,10) where x % 2 = 0 | x^3] as cubes return n.name, cubes",
+    "match (n:Person) where n.name starts with 'Pet' or n.name ends with 'ter' and not n.name contains 'x' return n",
+    "match (user:User) call { with user match (user)-[:FRIEND]->(friend) return count(friend) as friends } return user.name, friends",
+    "match (n) detach delete n",
+    "return duration({days: 14, hours: 16, minutes: 12}) as aDuration, date({year: 1984, month: 10, day: 11}) as theDate",
+    "match (n {name: 'Andy'}) set n += {age: 38, hungry: true, position: 'Entrepreneur'} remove n.surname return n"
+  )
+
+  def main(args: Array[String]): Unit = {
+    val seconds = if (args.length > 0) args(0).toLong else 5
+
+    // Warm up the parsers of this thread and fill the cache
+    measure("warmup", seconds, query => Prettifier.prettify(query, keepMyNewlines = false))
+    corpus.foreach(query => Prettifier(query))
+
+    measure("uncached", seconds, query => Prettifier.prettify(query, keepMyNewlines = false))
+    measure("cached", seconds, query => Prettifier(query))
+    measure("tokenizer", seconds, query => TokenizingPrettifier(query))
+
+    // One large generated query file, of about a megabyte
+    val large = Iterator.continually(corpus).flatten.take(8000).mkString("\n")
+    for (round <- 1 to 3) {
+      time(s"parser, ${large.length} chars", Prettifier.prettify(large, keepMyNewlines = true))
+      time(s"tokenizer, ${large.length} chars", TokenizingPrettifier(large, keepMyNewlines = true))
+    }
+  }
+
+  private def time(name: String, prettify: => String): Unit = {
+    val start = System.nanoTime()
+    prettify
+    println(f"$name: ${TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)}%d ms")
+  }
+
+  private def measure(name: String, seconds: Long, prettify: String => String): Unit = {
+    val deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds)
+    val start = System.nanoTime()
+    var operations = 0L
+    var chars = 0L
+    while (System.nanoTime() < deadline) {
+      corpus.foreach { query =>
+        chars += prettify(query).length
+        operations += 1
+      }
+    }
+    val elapsed = System.nanoTime() - start
+    println(f"$name%-8s ${operations * 1e9 / elapsed}%12.0f queries/s ${elapsed.toDouble / operations / 1000}%10.2f us/query ($chars chars)")
+  }
+}
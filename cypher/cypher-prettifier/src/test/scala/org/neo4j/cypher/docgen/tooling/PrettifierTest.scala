@@ -237,9 +237,25 @@ class PrettifierTest extends Suite
     ))
   }
 
-  private def actual(text: String) = Prettifier(text)
+  test("cached and uncached prettification agree") {
+    val query = "match (n:Person) where n.age > 30 with n order by n.name return n.name as name limit 5"
 
-  private def actualKeepNL(text: String) = Prettifier(text, keepMyNewlines = true)
+    Prettifier(query) should equal(Prettifier.prettify(query, keepMyNewlines = false))
+    Prettifier(query) should equal(Prettifier.prettify(query, keepMyNewlines = false))
+  }
+
+  test("cache keeps results for different newline handling apart") {
+    val query = "with\n1 as one return one"
+
+    actual(query) should equal(expected("WITH 1 AS one%nRETURN one"))
+    actualKeepNL(query) should equal(expected("WITH%n1 AS one%nRETURN one"))
+  }
+
+  protected def prettifier: Prettifying = Prettifier
+
+  private def actual(text: String) = prettifier(text, keepMyNewlines = false)
+
+  private def actualKeepNL(text: String) = prettifier(text, keepMyNewlines = true)
 
   private def expected(text: String) = String.format(text)
 }
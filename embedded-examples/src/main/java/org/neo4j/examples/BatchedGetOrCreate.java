@@ -0,0 +1,211 @@
+/*
+ * Licensed to Neo4j under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Neo4j licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.neo4j.examples;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.neo4j.graphdb.GraphDatabaseService;
+import org.neo4j.graphdb.Label;
+import org.neo4j.graphdb.Result;
+import org.neo4j.graphdb.Transaction;
+
+/**
+ * Gets or creates many nodes, identified by a label and a key property, as fast as possible.
+ * <p>
+ * This is the {@code MERGE (n:User {name: $name})} pattern from the get-or-create documentation scaled up.
+ * Rather than one transaction per key, keys are merged in batches with {@code UNWIND $keys AS key MERGE ...}.
+ * Keys are partitioned across the workers by hash, so that within one call no two workers ever merge the same key
+ * and compete for its lock. Each batch runs through a {@link RetryingTransactionExecutor}, which retries deadlocks
+ * and other transient failures caused by concurrent callers.
+ * <p>
+ * Like the single key version this relies on a uniqueness constraint on the label and property, without which
+ * concurrent merges may create duplicates.
+ */
+public class BatchedGetOrCreate implements AutoCloseable
+{
+    public static final int DEFAULT_BATCH_SIZE = 1000;
+    private static final String TRANSACTION_TYPE = "getOrCreate";
+
+    private final RetryingTransactionExecutor executor;
+    private final String query;
+    private final int workers;
+    private final int batchSize;
+    private final ExecutorService workerPool;
+    private final LongAdder created = new LongAdder();
+
+    public BatchedGetOrCreate( GraphDatabaseService graphDb, Label label, String key )
+    {
+        this( new RetryingTransactionExecutor( graphDb ), label, key, Runtime.getRuntime().availableProcessors(), DEFAULT_BATCH_SIZE );
+    }
+
+    /**
+     * @param executor runs and retries the batches.
+     * @param label the label of the nodes.
+     * @param key the property that identifies a node.
+     * @param workers the number of threads merging partitions in parallel.
+     * @param batchSize the maximum number of keys merged in one transaction.
+     */
+    public BatchedGetOrCreate( RetryingTransactionExecutor executor, Label label, String key, int workers, int batchSize )
+    {
+        if ( workers < 1 || batchSize < 1 )
+        {
+            throw new IllegalArgumentException( "Workers and batch size must be at least 1, were " + workers + " and " + batchSize );
+        }
+        this.executor = executor;
+        this.query = "UNWIND $keys AS key MERGE (n:" + escape( label.name() ) + " {" + escape( key ) + ": key}) RETURN key, id(n) AS id";
+        this.workers = workers;
+        this.batchSize = batchSize;
+        this.workerPool = Executors.newFixedThreadPool( workers );
+    }
+
+    /**
+     * Gets or creates a node for each of the given keys.
+     *
+     * @param keys the key property values. Duplicates are merged once.
+     * @return the id of the node for each key.
+     */
+    public Map<String, Long> getOrCreate( Collection<String> keys )
+    {
+        List<List<String>> partitions = partition( keys );
+        List<Future<Map<String, Long>>> futures = new ArrayList<>( partitions.size() );
+        for ( List<String> partition : partitions )
+        {
+            if ( !partition.isEmpty() )
+            {
+                futures.add( workerPool.submit( () -> mergePartition( partition ) ) );
+            }
+        }
+
+        Map<String, Long> ids = new HashMap<>( keys.size() * 4 / 3 + 1 );
+        for ( Future<Map<String, Long>> future : futures )
+        {
+            try
+            {
+                ids.putAll( future.get() );
+            }
+            catch ( InterruptedException e )
+            {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException( "Interrupted while merging keys", e );
+            }
+            catch ( ExecutionException e )
+            {
+                Throwable cause = e.getCause();
+                if ( cause instanceof RuntimeException )
+                {
+                    throw (RuntimeException) cause;
+                }
+                throw new IllegalStateException( "Failed to merge keys", cause );
+            }
+        }
+        return ids;
+    }
+
+    /**
+     * @return the number of nodes this instance has created, as opposed to found.
+     */
+    public long created()
+    {
+        return created.sum();
+    }
+
+    /**
+     * @return commits, retries, deadlocks and failures of the batch transactions.
+     */
+    public RetryingTransactionExecutor.TransactionTypeMetrics metrics()
+    {
+        return executor.metrics( TRANSACTION_TYPE );
+    }
+
+    @Override
+    public void close()
+    {
+        workerPool.shutdown();
+    }
+
+    private List<List<String>> partition( Collection<String> keys )
+    {
+        List<List<String>> partitions = new ArrayList<>( workers );
+        for ( int i = 0; i < workers; i++ )
+        {
+            partitions.add( new ArrayList<>( keys.size() / workers + 1 ) );
+        }
+        for ( String key : new LinkedHashSet<>( keys ) )
+        {
+            partitions.get( Math.floorMod( key.hashCode(), workers ) ).add( key );
+        }
+        return partitions;
+    }
+
+    private Map<String, Long> mergePartition( List<String> partition )
+    {
+        Map<String, Long> ids = new HashMap<>( partition.size() * 4 / 3 + 1 );
+        for ( int from = 0; from < partition.size(); from += batchSize )
+        {
+            List<String> batch = partition.subList( from, Math.min( partition.size(), from + batchSize ) );
+            MergedBatch merged = executor.execute( TRANSACTION_TYPE, tx -> mergeBatch( tx, batch ) );
+            // Only counted once the batch has committed, so that attempts that were rolled back are not counted
+            created.add( merged.nodesCreated );
+            ids.putAll( merged.ids );
+        }
+        return ids;
+    }
+
+    private MergedBatch mergeBatch( Transaction tx, List<String> batch )
+    {
+        MergedBatch merged = new MergedBatch( batch.size() );
+        try ( Result result = tx.execute( query, Collections.singletonMap( "keys", batch ) ) )
+        {
+            while ( result.hasNext() )
+            {
+                Map<String, Object> row = result.next();
+                merged.ids.put( (String) row.get( "key" ), (Long) row.get( "id" ) );
+            }
+            merged.nodesCreated = result.getQueryStatistics().getNodesCreated();
+        }
+        return merged;
+    }
+
+    private static String escape( String name )
+    {
+        return "`" + name.replace( "`", "``" ) + "`";
+    }
+
+    private static class MergedBatch
+    {
+        final Map<String, Long> ids;
+        long nodesCreated;
+
+        MergedBatch( int size )
+        {
+            ids = new HashMap<>( size * 4 / 3 + 1 );
+        }
+    }
+}
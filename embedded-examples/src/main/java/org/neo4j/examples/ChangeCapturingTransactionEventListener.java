@@ -0,0 +1,426 @@
+/*
+ * Licensed to Neo4j under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Neo4j licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.neo4j.examples;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+import org.neo4j.graphdb.GraphDatabaseService;
+import org.neo4j.graphdb.Node;
+import org.neo4j.graphdb.Relationship;
+import org.neo4j.graphdb.Transaction;
+import org.neo4j.graphdb.event.LabelEntry;
+import org.neo4j.graphdb.event.TransactionData;
+import org.neo4j.graphdb.event.TransactionEventListener;
+
+/**
+ * A change-data-capture pipeline built on {@link TransactionEventListener}.
+ * <p>
+ * After each commit, the committing thread copies the {@link TransactionData} into a compact {@link ChangeRecord}
+ * and offers it to a bounded queue. It never waits: if the queue is full the record is dropped and counted, see
+ * {@link #getDroppedRecords()}. A single background thread drains the queue in batches, aggregates per-label and
+ * per-relationship-type counters, and hands each {@link ChangeBatch} to the downstream consumer. The work done on
+ * the commit path is therefore proportional to the size of the transaction only, and does not depend on how fast
+ * the consumer is. A batch the consumer fails on is counted, see {@link #getFailedBatches()}, and draining carries on.
+ */
+public class ChangeCapturingTransactionEventListener implements TransactionEventListener<Void>, AutoCloseable
+{
+    public static final Duration DEFAULT_CLOSE_TIMEOUT = Duration.ofSeconds( 30 );
+
+    private static final ChangeRecord POISON = new ChangeRecord( -1, -1, new long[0], new long[0], new long[0], new long[0],
+            new HashMap<>(), new HashMap<>(), 0 );
+
+    private final BlockingQueue<ChangeRecord> queue;
+    private final int maxBatchSize;
+    private final Consumer<ChangeBatch> consumer;
+    private final Thread drainer;
+    private final LongAdder droppedRecords = new LongAdder();
+    private final LongAdder failedBatches = new LongAdder();
+    private final AtomicInteger offering = new AtomicInteger();
+    private volatile boolean closed;
+
+    /**
+     * @param capacity the number of change records that can wait for the consumer before new ones are dropped.
+     * @param maxBatchSize the maximum number of change records aggregated into one batch.
+     * @param consumer receives the batches, always from the same background thread.
+     */
+    public ChangeCapturingTransactionEventListener( int capacity, int maxBatchSize, Consumer<ChangeBatch> consumer )
+    {
+        this.queue = new ArrayBlockingQueue<>( capacity );
+        this.maxBatchSize = maxBatchSize;
+        this.consumer = consumer;
+        this.drainer = new Thread( this::drain, "change-capture-drainer" );
+        this.drainer.setDaemon( true );
+        this.drainer.start();
+    }
+
+    @Override
+    public Void beforeCommit( TransactionData data, Transaction transaction, GraphDatabaseService databaseService )
+    {
+        return null;
+    }
+
+    @Override
+    public void afterCommit( TransactionData data, Void state, GraphDatabaseService databaseService )
+    {
+        // Announce the offer before checking 'closed', so that close() can wait for offers that raced with it.
+        offering.incrementAndGet();
+        try
+        {
+            if ( closed || !queue.offer( ChangeRecord.capture( data ) ) )
+            {
+                droppedRecords.increment();
+            }
+        }
+        finally
+        {
+            offering.decrementAndGet();
+        }
+    }
+
+    @Override
+    public void afterRollback( TransactionData data, Void state, GraphDatabaseService databaseService )
+    {
+    }
+
+    /**
+     * @return the number of change records that were dropped because the queue was full or the listener was closed.
+     */
+    public long getDroppedRecords()
+    {
+        return droppedRecords.sum();
+    }
+
+    /**
+     * @return the number of batches for which the consumer threw an exception.
+     */
+    public long getFailedBatches()
+    {
+        return failedBatches.sum();
+    }
+
+    /**
+     * Closes the listener, waiting at most {@link #DEFAULT_CLOSE_TIMEOUT}, see {@link #close(Duration)}.
+     */
+    @Override
+    public void close() throws InterruptedException
+    {
+        close( DEFAULT_CLOSE_TIMEOUT );
+    }
+
+    /**
+     * Stops accepting new change records and waits until the ones already queued have been delivered. Records that
+     * were offered while closing, after the end of the queue had been marked, are counted as dropped.
+     *
+     * @param timeout how long to wait for the queued records to be delivered. When it runs out, the background thread
+     * is interrupted and the records it has not delivered yet are lost.
+     * @return {@code true} if all queued records were delivered within the timeout.
+     */
+    public boolean close( Duration timeout ) throws InterruptedException
+    {
+        closed = true;
+        long deadline = System.nanoTime() + timeout.toNanos();
+        boolean delivered = queue.offer( POISON, timeout.toNanos(), TimeUnit.NANOSECONDS );
+        if ( delivered )
+        {
+            TimeUnit.NANOSECONDS.timedJoin( drainer, Math.max( 1, deadline - System.nanoTime() ) );
+        }
+        if ( drainer.isAlive() )
+        {
+            drainer.interrupt();
+            return false;
+        }
+
+        while ( offering.get() > 0 )
+        {
+            Thread.onSpinWait();
+        }
+        List<ChangeRecord> leftOver = new ArrayList<>();
+        queue.drainTo( leftOver );
+        leftOver.remove( POISON );
+        droppedRecords.add( leftOver.size() );
+        return delivered;
+    }
+
+    private void drain()
+    {
+        List<ChangeRecord> records = new ArrayList<>( maxBatchSize );
+        boolean done = false;
+        while ( !done )
+        {
+            try
+            {
+                records.add( queue.take() );
+                queue.drainTo( records, maxBatchSize - 1 );
+            }
+            catch ( InterruptedException e )
+            {
+                Thread.currentThread().interrupt();
+                return;
+            }
+
+            int poison = records.indexOf( POISON );
+            if ( poison >= 0 )
+            {
+                droppedRecords.add( records.size() - poison - 1 );
+                records.subList( poison, records.size() ).clear();
+                done = true;
+            }
+            if ( !records.isEmpty() )
+            {
+                try
+                {
+                    consumer.accept( new ChangeBatch( new ArrayList<>( records ) ) );
+                }
+                catch ( RuntimeException e )
+                {
+                    failedBatches.increment();
+                }
+                records.clear();
+            }
+        }
+    }
+
+    /**
+     * The changes made by one committed transaction, copied out of its {@link TransactionData}.
+     */
+    public static class ChangeRecord
+    {
+        private final long transactionId;
+        private final long commitTime;
+        private final long[] createdNodes;
+        private final long[] deletedNodes;
+        private final long[] createdRelationships;
+        private final long[] deletedRelationships;
+        private final Map<String, Integer> assignedLabels;
+        private final Map<String, Integer> createdRelationshipTypes;
+        private final int propertyChanges;
+
+        ChangeRecord( long transactionId, long commitTime, long[] createdNodes, long[] deletedNodes, long[] createdRelationships,
+                long[] deletedRelationships, Map<String, Integer> assignedLabels, Map<String, Integer> createdRelationshipTypes, int propertyChanges )
+        {
+            this.transactionId = transactionId;
+            this.commitTime = commitTime;
+            this.createdNodes = createdNodes;
+            this.deletedNodes = deletedNodes;
+            this.createdRelationships = createdRelationships;
+            this.deletedRelationships = deletedRelationships;
+            this.assignedLabels = assignedLabels;
+            this.createdRelationshipTypes = createdRelationshipTypes;
+            this.propertyChanges = propertyChanges;
+        }
+
+        static ChangeRecord capture( TransactionData data )
+        {
+            Map<String, Integer> assignedLabels = new HashMap<>();
+            for ( LabelEntry entry : data.assignedLabels() )
+            {
+                assignedLabels.merge( entry.label().name(), 1, Integer::sum );
+            }
+            Map<String, Integer> createdRelationshipTypes = new HashMap<>();
+            LongArrayBuilder createdRelationships = new LongArrayBuilder();
+            for ( Relationship relationship : data.createdRelationships() )
+            {
+                createdRelationshipTypes.merge( relationship.getType().name(), 1, Integer::sum );
+                createdRelationships.add( relationship.getId() );
+            }
+            int propertyChanges = count( data.assignedNodeProperties() ) + count( data.removedNodeProperties() ) +
+                    count( data.assignedRelationshipProperties() ) + count( data.removedRelationshipProperties() );
+
+            return new ChangeRecord( data.getTransactionId(), data.getCommitTime(), nodeIds( data.createdNodes() ), nodeIds( data.deletedNodes() ),
+                    createdRelationships.build(), relationshipIds( data.deletedRelationships() ), assignedLabels, createdRelationshipTypes,
+                    propertyChanges );
+        }
+
+        private static long[] nodeIds( Iterable<Node> nodes )
+        {
+            LongArrayBuilder ids = new LongArrayBuilder();
+            for ( Node node : nodes )
+            {
+                ids.add( node.getId() );
+            }
+            return ids.build();
+        }
+
+        private static long[] relationshipIds( Iterable<Relationship> relationships )
+        {
+            LongArrayBuilder ids = new LongArrayBuilder();
+            for ( Relationship relationship : relationships )
+            {
+                ids.add( relationship.getId() );
+            }
+            return ids.build();
+        }
+
+        private static int count( Iterable<?> entries )
+        {
+            int count = 0;
+            for ( Object ignored : entries )
+            {
+                count++;
+            }
+            return count;
+        }
+
+        public long getTransactionId()
+        {
+            return transactionId;
+        }
+
+        public long getCommitTime()
+        {
+            return commitTime;
+        }
+
+        public long[] getCreatedNodes()
+        {
+            return createdNodes;
+        }
+
+        public long[] getDeletedNodes()
+        {
+            return deletedNodes;
+        }
+
+        public long[] getCreatedRelationships()
+        {
+            return createdRelationships;
+        }
+
+        public long[] getDeletedRelationships()
+        {
+            return deletedRelationships;
+        }
+
+        public Map<String, Integer> getAssignedLabels()
+        {
+            return assignedLabels;
+        }
+
+        public Map<String, Integer> getCreatedRelationshipTypes()
+        {
+            return createdRelationshipTypes;
+        }
+
+        public int getPropertyChanges()
+        {
+            return propertyChanges;
+        }
+    }
+
+    /**
+     * A batch of consecutive change records together with counters aggregated over all of them.
+     */
+    public static class ChangeBatch
+    {
+        private final List<ChangeRecord> records;
+        private final Map<String, Long> assignedLabels = new HashMap<>();
+        private final Map<String, Long> createdRelationshipTypes = new HashMap<>();
+        private long createdNodes;
+        private long deletedNodes;
+        private long createdRelationships;
+        private long deletedRelationships;
+        private long propertyChanges;
+
+        ChangeBatch( List<ChangeRecord> records )
+        {
+            this.records = records;
+            for ( ChangeRecord record : records )
+            {
+                createdNodes += record.createdNodes.length;
+                deletedNodes += record.deletedNodes.length;
+                createdRelationships += record.createdRelationships.length;
+                deletedRelationships += record.deletedRelationships.length;
+                propertyChanges += record.propertyChanges;
+                record.assignedLabels.forEach( ( label, count ) -> assignedLabels.merge( label, (long) count, Long::sum ) );
+                record.createdRelationshipTypes.forEach( ( type, count ) -> createdRelationshipTypes.merge( type, (long) count, Long::sum ) );
+            }
+        }
+
+        public List<ChangeRecord> getRecords()
+        {
+            return records;
+        }
+
+        public Map<String, Long> getAssignedLabels()
+        {
+            return assignedLabels;
+        }
+
+        public Map<String, Long> getCreatedRelationshipTypes()
+        {
+            return createdRelationshipTypes;
+        }
+
+        public long getCreatedNodes()
+        {
+            return createdNodes;
+        }
+
+        public long getDeletedNodes()
+        {
+            return deletedNodes;
+        }
+
+        public long getCreatedRelationships()
+        {
+            return createdRelationships;
+        }
+
+        public long getDeletedRelationships()
+        {
+            return deletedRelationships;
+        }
+
+        public long getPropertyChanges()
+        {
+            return propertyChanges;
+        }
+    }
+
+    private static class LongArrayBuilder
+    {
+        private long[] values = new long[8];
+        private int size;
+
+        void add( long value )
+        {
+            if ( size == values.length )
+            {
+                values = Arrays.copyOf( values, size * 2 );
+            }
+            values[size++] = value;
+        }
+
+        long[] build()
+        {
+            return size == values.length ? values : Arrays.copyOf( values, size );
+        }
+    }
+}
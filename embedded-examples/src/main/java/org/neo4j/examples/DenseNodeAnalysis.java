@@ -0,0 +1,295 @@
+/*
+ * Licensed to Neo4j under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Neo4j licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.neo4j.examples;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import org.neo4j.graphdb.GraphDatabaseService;
+import org.neo4j.graphdb.Node;
+import org.neo4j.graphdb.NotFoundException;
+import org.neo4j.graphdb.RelationshipType;
+import org.neo4j.graphdb.Transaction;
+import org.neo4j.internal.id.IdGeneratorFactory;
+import org.neo4j.internal.id.IdType;
+import org.neo4j.kernel.internal.GraphDatabaseAPI;
+import org.neo4j.procedure.Context;
+import org.neo4j.procedure.Description;
+import org.neo4j.procedure.Mode;
+import org.neo4j.procedure.Name;
+import org.neo4j.procedure.Procedure;
+
+/**
+ * Procedures for finding supernodes.
+ * <p>
+ * The node id space, up to the high id of the node store, is split into ranges of consecutive ids. Each call starts
+ * a pool of at most one thread per available processor and shuts it down when the scan is done. Every thread
+ * claims ranges one at a time and scans them in its own read transaction, so each node is loaded once, by the
+ * thread that owns its range. The public API has no way to ask for the high id, so it is read from the internal
+ * {@link IdGeneratorFactory}.
+ * <p>
+ * Only the total degree of every node is read while scanning. Degrees per relationship type are only looked up for
+ * nodes that make it into the top candidates, and only the top candidates and the histogram counters are kept, so
+ * memory use does not grow with the size of the graph. Because the ranges are read in separate transactions,
+ * changes made by the calling transaction that are not yet committed are not seen.
+ */
+public class DenseNodeAnalysis
+{
+    static final int RANGE_SIZE = 10_000;
+    private static final int MAX_PARALLELISM = Runtime.getRuntime().availableProcessors();
+
+    @Context
+    public GraphDatabaseService db;
+
+    /**
+     * Finds the nodes with the highest degree.
+     * @param limit the number of nodes to return, at least one
+     * @param partitions the number of threads scanning id ranges in parallel, or zero to use one per available processor.
+     * Larger values are capped at the number of available processors.
+     * @return the densest nodes, densest first
+     */
+    @Procedure( mode = Mode.READ )
+    @Description( "Find the nodes with the highest degree, scanning ranges of node ids in parallel." )
+    public Stream<NodeDegrees> topDenseNodes( @Name( "limit" ) long limit, @Name( value = "partitions", defaultValue = "0" ) long partitions )
+    {
+        if ( limit < 1 || limit > Integer.MAX_VALUE )
+        {
+            throw new IllegalArgumentException( "Limit must be between 1 and " + Integer.MAX_VALUE + ", was " + limit );
+        }
+        return scan( (int) limit, parallelism( partitions ) ).topNodes();
+    }
+
+    /**
+     * Computes a histogram of node degrees, with buckets that double in width: [0,1), [1,2), [2,4), [4,8) and so on.
+     * @param partitions the number of threads scanning id ranges in parallel, or zero to use one per available processor.
+     * Larger values are capped at the number of available processors.
+     * @return one record for each non-empty bucket, in increasing degree order
+     */
+    @Procedure( mode = Mode.READ )
+    @Description( "Compute a histogram of node degrees in power-of-two buckets, scanning ranges of node ids in parallel." )
+    public Stream<DegreeBucket> degreeHistogram( @Name( value = "partitions", defaultValue = "0" ) long partitions )
+    {
+        return scan( 0, parallelism( partitions ) ).histogram();
+    }
+
+    private static int parallelism( long partitions )
+    {
+        if ( partitions < 0 )
+        {
+            throw new IllegalArgumentException( "Partitions must not be negative, was " + partitions );
+        }
+        return partitions == 0 ? MAX_PARALLELISM : (int) Math.min( partitions, MAX_PARALLELISM );
+    }
+
+    private DegreeScan scan( int limit, int parallelism )
+    {
+        long highId = ((GraphDatabaseAPI) db).getDependencyResolver().resolveDependency( IdGeneratorFactory.class ).get( IdType.NODE ).getHighId();
+        AtomicLong nextRange = new AtomicLong();
+        ExecutorService scanners = Executors.newFixedThreadPool( parallelism, runnable -> new Thread( runnable, "dense-node-scanner" ) );
+        List<Future<DegreeScan>> partitions = new ArrayList<>( parallelism );
+        try
+        {
+            for ( int i = 0; i < parallelism; i++ )
+            {
+                partitions.add( scanners.submit( () -> scanRanges( nextRange, highId, limit ) ) );
+            }
+            DegreeScan result = new DegreeScan( limit );
+            for ( Future<DegreeScan> partition : partitions )
+            {
+                result.merge( await( partition ) );
+            }
+            return result;
+        }
+        finally
+        {
+            scanners.shutdownNow();
+        }
+    }
+
+    private static DegreeScan await( Future<DegreeScan> future )
+    {
+        try
+        {
+            return future.get();
+        }
+        catch ( InterruptedException e )
+        {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException( "Interrupted while scanning for dense nodes", e );
+        }
+        catch ( ExecutionException e )
+        {
+            throw new RuntimeException( "Failed to scan for dense nodes", e.getCause() );
+        }
+    }
+
+    private DegreeScan scanRanges( AtomicLong nextRange, long highId, int limit )
+    {
+        DegreeScan partition = new DegreeScan( limit );
+        try ( Transaction tx = db.beginTx() )
+        {
+            for ( long from = nextRange.getAndAdd( RANGE_SIZE ); from < highId; from = nextRange.getAndAdd( RANGE_SIZE ) )
+            {
+                long to = Math.min( highId, from + RANGE_SIZE );
+                for ( long id = from; id < to; id++ )
+                {
+                    Node node;
+                    try
+                    {
+                        node = tx.getNodeById( id );
+                    }
+                    catch ( NotFoundException ignored )
+                    {
+                        // unused or deleted id
+                        continue;
+                    }
+                    partition.add( node );
+                }
+            }
+        }
+        return partition;
+    }
+
+    /**
+     * The top nodes and histogram counters collected while scanning, either for one partition or for all of them.
+     */
+    static class DegreeScan
+    {
+        private static final Comparator<NodeDegrees> BY_DEGREE = Comparator.comparingLong( ( NodeDegrees n ) -> n.degree )
+                .thenComparingLong( n -> -n.nodeId );
+
+        private final int limit;
+        private final PriorityQueue<NodeDegrees> top = new PriorityQueue<>( BY_DEGREE );
+        private final long[] buckets = new long[Long.SIZE + 1];
+
+        DegreeScan( int limit )
+        {
+            this.limit = limit;
+        }
+
+        void add( Node node )
+        {
+            long degree = node.getDegree();
+            buckets[bucketOf( degree )]++;
+            if ( limit > 0 && qualifies( degree, node.getId() ) )
+            {
+                Map<String, Object> degreesByType = new HashMap<>();
+                for ( RelationshipType type : node.getRelationshipTypes() )
+                {
+                    degreesByType.put( type.name(), (long) node.getDegree( type ) );
+                }
+                offer( new NodeDegrees( node.getId(), degree, degreesByType ) );
+            }
+        }
+
+        private boolean qualifies( long degree, long nodeId )
+        {
+            if ( top.size() < limit )
+            {
+                return true;
+            }
+            NodeDegrees lowest = top.peek();
+            return degree > lowest.degree || (degree == lowest.degree && nodeId < lowest.nodeId);
+        }
+
+        void merge( DegreeScan other )
+        {
+            for ( int i = 0; i < buckets.length; i++ )
+            {
+                buckets[i] += other.buckets[i];
+            }
+            other.top.forEach( this::offer );
+        }
+
+        private void offer( NodeDegrees candidate )
+        {
+            if ( top.size() < limit )
+            {
+                top.add( candidate );
+            }
+            else if ( BY_DEGREE.compare( candidate, top.peek() ) > 0 )
+            {
+                top.poll();
+                top.add( candidate );
+            }
+        }
+
+        Stream<NodeDegrees> topNodes()
+        {
+            return top.stream().sorted( BY_DEGREE.reversed() );
+        }
+
+        Stream<DegreeBucket> histogram()
+        {
+            return IntStream.range( 0, buckets.length )
+                    .filter( i -> buckets[i] > 0 )
+                    .mapToObj( i -> new DegreeBucket( i == 0 ? 0 : 1L << (i - 1), i == 0 ? 1 : 1L << i, buckets[i] ) );
+        }
+
+        private static int bucketOf( long degree )
+        {
+            return Long.SIZE - Long.numberOfLeadingZeros( degree );
+        }
+    }
+
+    /**
+     * Output record for {@link #topDenseNodes(long, long)}.
+     */
+    public static class NodeDegrees
+    {
+        public long nodeId;
+        public long degree;
+        public Map<String, Object> degreesByType;
+
+        public NodeDegrees( long nodeId, long degree, Map<String, Object> degreesByType )
+        {
+            this.nodeId = nodeId;
+            this.degree = degree;
+            this.degreesByType = degreesByType;
+        }
+    }
+
+    /**
+     * Output record for {@link #degreeHistogram(long)}, counting the nodes with a degree in {@code [minDegree, maxDegree)}.
+     */
+    public static class DegreeBucket
+    {
+        public long minDegree;
+        public long maxDegree;
+        public long nodes;
+
+        public DegreeBucket( long minDegree, long maxDegree, long nodes )
+        {
+            this.minDegree = minDegree;
+            this.maxDegree = maxDegree;
+            this.nodes = nodes;
+        }
+    }
+}
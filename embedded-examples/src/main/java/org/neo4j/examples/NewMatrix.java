@@ -57,8 +57,10 @@ public class NewMatrix
     {
         NewMatrix matrix = new NewMatrix();
         matrix.setUp();
-        System.out.println( matrix.printNeoFriends() );
-        System.out.println( matrix.printMatrixHackers() );
+        matrix.printNeoFriends( System.out );
+        System.out.println();
+        matrix.printMatrixHackers( System.out );
+        System.out.println();
         matrix.shutdown();
     }
 
@@ -145,18 +147,37 @@ public class NewMatrix
             Node neoNode = getNeoNode( tx );
             // tag::friends-usage[]
             int numberOfFriends = 0;
-            String output = neoNode.getProperty( "name" ) + "'s friends:\n";
+            StringBuilder output = new StringBuilder();
+            output.append( neoNode.getProperty( "name" ) ).append( "'s friends:\n" );
             Traverser friendsTraverser = getFriends( tx, neoNode );
             for ( Path friendPath : friendsTraverser )
             {
-                output += "At depth " + friendPath.length() + " => "
-                          + friendPath.endNode()
-                                  .getProperty( "name" ) + "\n";
+                output.append( "At depth " ).append( friendPath.length() ).append( " => " )
+                        .append( friendPath.endNode()
+                                .getProperty( "name" ) ).append( "\n" );
                 numberOfFriends++;
             }
-            output += "Number of friends found: " + numberOfFriends + "\n";
+            output.append( "Number of friends found: " ).append( numberOfFriends ).append( "\n" );
             // end::friends-usage[]
-            return output;
+            return output.toString();
+        }
+    }
+
+    public void printNeoFriends( Appendable output )
+    {
+        try ( Transaction tx = graphDb.beginTx() )
+        {
+            Node neoNode = getNeoNode( tx );
+            int numberOfFriends = 0;
+            PathWriter writer = new PathWriter( output );
+            writer.println( neoNode.getProperty( "name" ) + "'s friends:" );
+            for ( Path friendPath : getFriends( tx, neoNode ) )
+            {
+                writer.println( "At depth " + friendPath.length() + " => " + friendPath.endNode().getProperty( "name" ) );
+                numberOfFriends++;
+            }
+            writer.println( "Number of friends found: " + numberOfFriends );
+            writer.flush();
         }
     }
 
@@ -176,19 +197,36 @@ public class NewMatrix
         try ( Transaction tx = graphDb.beginTx() )
         {
             // tag::find--hackers-usage[]
-            String output = "Hackers:\n";
+            StringBuilder output = new StringBuilder( "Hackers:\n" );
             int numberOfHackers = 0;
             Traverser traverser = findHackers( tx, getNeoNode( tx ) );
             for ( Path hackerPath : traverser )
             {
-                output += "At depth " + hackerPath.length() + " => "
-                          + hackerPath.endNode()
-                                  .getProperty( "name" ) + "\n";
+                output.append( "At depth " ).append( hackerPath.length() ).append( " => " )
+                        .append( hackerPath.endNode()
+                                .getProperty( "name" ) ).append( "\n" );
                 numberOfHackers++;
             }
-            output += "Number of hackers found: " + numberOfHackers + "\n";
+            output.append( "Number of hackers found: " ).append( numberOfHackers ).append( "\n" );
             // end::find--hackers-usage[]
-            return output;
+            return output.toString();
+        }
+    }
+
+    public void printMatrixHackers( Appendable output )
+    {
+        try ( Transaction tx = graphDb.beginTx() )
+        {
+            PathWriter writer = new PathWriter( output );
+            writer.println( "Hackers:" );
+            int numberOfHackers = 0;
+            for ( Path hackerPath : findHackers( tx, getNeoNode( tx ) ) )
+            {
+                writer.println( "At depth " + hackerPath.length() + " => " + hackerPath.endNode().getProperty( "name" ) );
+                numberOfHackers++;
+            }
+            writer.println( "Number of hackers found: " + numberOfHackers );
+            writer.flush();
         }
     }
 
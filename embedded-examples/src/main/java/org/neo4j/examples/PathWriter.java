@@ -0,0 +1,145 @@
+/*
+ * Licensed to Neo4j under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Neo4j licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.neo4j.examples;
+
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+import org.neo4j.graphdb.Node;
+import org.neo4j.graphdb.Path;
+import org.neo4j.graphdb.Relationship;
+import org.neo4j.graphdb.traversal.Paths;
+
+/**
+ * Writes traversal output straight to an {@link Appendable}, such as a {@link java.io.Writer}, a {@link java.io.PrintStream}
+ * or a {@link StringBuilder}, instead of concatenating it into a string first.
+ * <p>
+ * With a {@link Paths.PathDescriptor} a path is written one node and relationship at a time, in the same form as
+ * {@link Paths#pathToString(Path, Paths.PathDescriptor)} gives. Without one, paths are written as {@link Path#toString()}
+ * gives them. Either way only one path is held at a time, so writing the paths of a large traversal takes time in
+ * proportion to the output and no more memory than the longest path.
+ * <p>
+ * Failures to write are rethrown as {@link UncheckedIOException}, so that writers can be used inside traversal loops.
+ */
+public class PathWriter
+{
+    private final Appendable out;
+    private final Paths.PathDescriptor<? super Path> descriptor;
+
+    public PathWriter( Appendable out )
+    {
+        this( out, null );
+    }
+
+    /**
+     * @param out where to write.
+     * @param descriptor how to write nodes and relationships of paths, or {@code null} to write paths as {@link Path#toString()}.
+     */
+    public PathWriter( Appendable out, Paths.PathDescriptor<? super Path> descriptor )
+    {
+        this.out = out;
+        this.descriptor = descriptor;
+    }
+
+    public PathWriter print( Path path )
+    {
+        if ( descriptor == null )
+        {
+            return append( String.valueOf( path ) );
+        }
+        Node current = path.startNode();
+        append( descriptor.nodeRepresentation( path, current ) );
+        for ( Relationship relationship : path.relationships() )
+        {
+            append( descriptor.relationshipRepresentation( path, current, relationship ) );
+            current = relationship.getOtherNode( current );
+            append( descriptor.nodeRepresentation( path, current ) );
+        }
+        return this;
+    }
+
+    public PathWriter println( Path path )
+    {
+        return print( path ).println();
+    }
+
+    public PathWriter print( Object value )
+    {
+        return append( String.valueOf( value ) );
+    }
+
+    public PathWriter println( Object value )
+    {
+        return print( value ).println();
+    }
+
+    public PathWriter println()
+    {
+        return append( "\n" );
+    }
+
+    /**
+     * Writes each path on a line of its own.
+     *
+     * @return the number of paths written.
+     */
+    public long printlnAll( Iterable<? extends Path> paths )
+    {
+        long count = 0;
+        for ( Path path : paths )
+        {
+            println( path );
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     * Flushes the underlying {@link Appendable}, if it can be flushed.
+     */
+    public PathWriter flush()
+    {
+        if ( out instanceof Flushable )
+        {
+            try
+            {
+                ((Flushable) out).flush();
+            }
+            catch ( IOException e )
+            {
+                throw new UncheckedIOException( e );
+            }
+        }
+        return this;
+    }
+
+    private PathWriter append( CharSequence text )
+    {
+        try
+        {
+            out.append( text );
+        }
+        catch ( IOException e )
+        {
+            throw new UncheckedIOException( e );
+        }
+        return this;
+    }
+}
@@ -40,7 +40,7 @@ public class ProcedureExample
     @Procedure
     public Stream<DenseNode> findDenseNodes( @Name("threshold") long threshold )
     {
-        return transaction.getAllNodes().stream().filter( ( node ) -> node.getDegree() > threshold ).map( DenseNode::new );
+        return transaction.getAllNodes().stream().map( DenseNode::new ).filter( ( denseNode ) -> denseNode.degree > threshold );
     }
     // end::procedureExample[]
 
@@ -0,0 +1,256 @@
+/*
+ * Licensed to Neo4j under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Neo4j licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.neo4j.examples;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+import org.neo4j.graphdb.GraphDatabaseService;
+import org.neo4j.graphdb.Transaction;
+import org.neo4j.graphdb.TransactionFailureException;
+import org.neo4j.graphdb.TransientFailureException;
+import org.neo4j.kernel.DeadlockDetectedException;
+
+/**
+ * Runs units of work in their own transaction and retries them when they fail with a transient error,
+ * such as a {@link DeadlockDetectedException}.
+ * <p>
+ * This is the retry loop from the deadlock documentation turned into something reusable. Instead of sleeping
+ * for a fixed period between attempts, it backs off exponentially with full jitter, so that competing
+ * transactions spread out rather than colliding again. Retries are also drawn from a budget shared by
+ * all callers, which caps the number of retries within a time window so a burst of contention does not
+ * turn into a flood of retried transactions. Commits, retries, deadlocks and failures are counted per
+ * transaction type.
+ */
+public class RetryingTransactionExecutor
+{
+    public static final int DEFAULT_MAX_ATTEMPTS = 5;
+    public static final Duration DEFAULT_INITIAL_BACKOFF = Duration.ofMillis( 10 );
+    public static final Duration DEFAULT_MAX_BACKOFF = Duration.ofSeconds( 1 );
+    public static final int DEFAULT_RETRIES_PER_WINDOW = 1000;
+    public static final Duration DEFAULT_BUDGET_WINDOW = Duration.ofSeconds( 1 );
+
+    private final GraphDatabaseService databaseService;
+    private final int maxAttempts;
+    private final long initialBackoffMillis;
+    private final long maxBackoffMillis;
+    private final RetryBudget retryBudget;
+    private final Map<String, TransactionTypeMetrics> metrics = new ConcurrentHashMap<>();
+
+    public RetryingTransactionExecutor( GraphDatabaseService databaseService )
+    {
+        this( databaseService, DEFAULT_MAX_ATTEMPTS, DEFAULT_INITIAL_BACKOFF, DEFAULT_MAX_BACKOFF, DEFAULT_RETRIES_PER_WINDOW,
+                DEFAULT_BUDGET_WINDOW );
+    }
+
+    /**
+     * @param databaseService the database to run transactions against.
+     * @param maxAttempts the maximum number of times a unit of work is attempted, including the first attempt.
+     * @param initialBackoff the upper bound of the wait before the first retry. The bound doubles for every further retry.
+     * @param maxBackoff the upper bound of the wait before any retry.
+     * @param retriesPerWindow the number of retries all callers together may do within one {@code budgetWindow}.
+     * @param budgetWindow the length of the window the retry budget is counted in.
+     */
+    public RetryingTransactionExecutor( GraphDatabaseService databaseService, int maxAttempts, Duration initialBackoff, Duration maxBackoff,
+            int retriesPerWindow, Duration budgetWindow )
+    {
+        if ( maxAttempts < 1 )
+        {
+            throw new IllegalArgumentException( "Max attempts must be at least 1, was " + maxAttempts );
+        }
+        if ( initialBackoff.isNegative() || maxBackoff.compareTo( initialBackoff ) < 0 )
+        {
+            throw new IllegalArgumentException( "Invalid backoff range [" + initialBackoff + ", " + maxBackoff + "]" );
+        }
+        this.databaseService = databaseService;
+        this.maxAttempts = maxAttempts;
+        this.initialBackoffMillis = initialBackoff.toMillis();
+        this.maxBackoffMillis = maxBackoff.toMillis();
+        this.retryBudget = new RetryBudget( retriesPerWindow, budgetWindow.toMillis() );
+    }
+
+    /**
+     * Runs {@code work} in a new transaction and commits it, retrying on transient failures.
+     *
+     * @param transactionType name under which attempts are counted, see {@link #metrics(String)}.
+     * @param work the unit of work. It may be invoked more than once, so it must not have side effects outside of the transaction.
+     * @param <T> the type of the result.
+     * @return the result of the attempt that committed.
+     */
+    public <T> T execute( String transactionType, Function<Transaction, T> work )
+    {
+        TransactionTypeMetrics typeMetrics = metrics.computeIfAbsent( transactionType, type -> new TransactionTypeMetrics() );
+        for ( int attempt = 1; ; attempt++ )
+        {
+            try ( Transaction tx = databaseService.beginTx() )
+            {
+                T result = work.apply( tx );
+                tx.commit();
+                typeMetrics.commits.increment();
+                return result;
+            }
+            catch ( RuntimeException | Error e )
+            {
+                if ( isDeadlock( e ) )
+                {
+                    typeMetrics.deadlocks.increment();
+                }
+                if ( !isTransient( e ) || attempt >= maxAttempts || !retryBudget.tryAcquire() )
+                {
+                    typeMetrics.failures.increment();
+                    throw e;
+                }
+            }
+            typeMetrics.retries.increment();
+            backOff( attempt );
+        }
+    }
+
+    /**
+     * @param transactionType the type given to {@link #execute(String, Function)}.
+     * @return the counters for the given transaction type. They are live and keep updating.
+     */
+    public TransactionTypeMetrics metrics( String transactionType )
+    {
+        return metrics.computeIfAbsent( transactionType, type -> new TransactionTypeMetrics() );
+    }
+
+    /**
+     * @return the counters of all transaction types seen so far, by type.
+     */
+    public Map<String, TransactionTypeMetrics> metrics()
+    {
+        return Collections.unmodifiableMap( metrics );
+    }
+
+    private void backOff( int attempt )
+    {
+        // Full jitter: wait for a random time between zero and the exponentially growing bound.
+        long bound = Math.min( maxBackoffMillis, initialBackoffMillis << Math.min( attempt - 1, 30 ) );
+        if ( bound <= 0 )
+        {
+            return;
+        }
+        try
+        {
+            Thread.sleep( ThreadLocalRandom.current().nextLong( bound + 1 ) );
+        }
+        catch ( InterruptedException e )
+        {
+            Thread.currentThread().interrupt();
+            throw new TransactionFailureException( "Interrupted", e );
+        }
+    }
+
+    private static boolean isTransient( Throwable failure )
+    {
+        for ( Throwable cause = failure; cause != null; cause = cause.getCause() )
+        {
+            if ( cause instanceof TransientFailureException )
+            {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isDeadlock( Throwable failure )
+    {
+        for ( Throwable cause = failure; cause != null; cause = cause.getCause() )
+        {
+            if ( cause instanceof DeadlockDetectedException )
+            {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Counters for one transaction type.
+     */
+    public static class TransactionTypeMetrics
+    {
+        private final LongAdder commits = new LongAdder();
+        private final LongAdder retries = new LongAdder();
+        private final LongAdder deadlocks = new LongAdder();
+        private final LongAdder failures = new LongAdder();
+
+        public long getCommits()
+        {
+            return commits.sum();
+        }
+
+        public long getRetries()
+        {
+            return retries.sum();
+        }
+
+        public long getDeadlocks()
+        {
+            return deadlocks.sum();
+        }
+
+        public long getFailures()
+        {
+            return failures.sum();
+        }
+
+        @Override
+        public String toString()
+        {
+            return String.format( "commits=%d, retries=%d, deadlocks=%d, failures=%d", getCommits(), getRetries(), getDeadlocks(), getFailures() );
+        }
+    }
+
+    /**
+     * Allows a fixed number of retries within each time window.
+     */
+    private static class RetryBudget
+    {
+        private final int retriesPerWindow;
+        private final long windowMillis;
+        private final AtomicLong windowStart = new AtomicLong( System.currentTimeMillis() );
+        private final AtomicInteger used = new AtomicInteger();
+
+        RetryBudget( int retriesPerWindow, long windowMillis )
+        {
+            this.retriesPerWindow = retriesPerWindow;
+            this.windowMillis = windowMillis;
+        }
+
+        boolean tryAcquire()
+        {
+            long now = System.currentTimeMillis();
+            long start = windowStart.get();
+            if ( now - start >= windowMillis && windowStart.compareAndSet( start, now ) )
+            {
+                used.set( 0 );
+            }
+            return used.incrementAndGet() <= retriesPerWindow;
+        }
+    }
+}
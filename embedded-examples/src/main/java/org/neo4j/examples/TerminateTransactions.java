@@ -23,6 +23,8 @@ import java.io.IOException;
 import java.util.LinkedList;
 import java.util.Queue;
 import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
 import org.neo4j.dbms.api.DatabaseManagementService;
 import org.neo4j.dbms.api.DatabaseManagementServiceBuilder;
@@ -53,6 +55,7 @@ public class TerminateTransactions
         DatabaseManagementService managementService = new DatabaseManagementServiceBuilder( databaseDirectory ).build();
         GraphDatabaseService graphDb = managementService.database( DEFAULT_DATABASE_NAME );
         // end::startDb[]
+        ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
 
         // tag::mkTree[]
         RelationshipType relType = RelationshipType.withName( "CHILD" );
@@ -65,7 +68,7 @@ public class TerminateTransactions
             nodes.add( rootNode );
 
             // end::mkTree[]
-            Terminator terminator = new Terminator(tx);
+            Terminator terminator = new Terminator( tx, scheduler );
             terminator.terminateAfter( 1000 );
 
             // tag::mkTree[]
@@ -92,6 +95,7 @@ public class TerminateTransactions
         // end::mkTree[]
         finally
         {
+            scheduler.shutdownNow();
             // tag::shutdownDb[]
             managementService.shutdown();
             // end::shutdownDb[]
@@ -101,37 +105,21 @@ public class TerminateTransactions
     public class Terminator
     {
         private final Transaction tx;
+        private final ScheduledExecutorService scheduler;
 
-        Terminator( Transaction tx ) {
+        Terminator( Transaction tx, ScheduledExecutorService scheduler ) {
             this.tx = tx;
+            this.scheduler = scheduler;
         }
 
         public void terminateAfter( final long millis )
         {
-            Executors.newSingleThreadExecutor().submit( new Runnable()
+            scheduler.schedule( () ->
             {
-                @Override
-                public void run()
-                {
-                    long startTime = System.currentTimeMillis();
-                    do
-                    {
-                        try
-                        {
-                            Thread.sleep( millis );
-                        }
-                        catch ( InterruptedException ignored )
-                        {
-                            // terminated while sleeping
-                        }
-                    }
-                    while ( (System.currentTimeMillis() - startTime) < millis );
-
-                    // tag::terminateTx[]
-                    tx.terminate();
-                    // end::terminateTx[]
-                }
-            } );
+                // tag::terminateTx[]
+                tx.terminate();
+                // end::terminateTx[]
+            }, millis, TimeUnit.MILLISECONDS );
         }
     }
 
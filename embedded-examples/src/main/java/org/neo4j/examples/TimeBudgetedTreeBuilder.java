@@ -0,0 +1,247 @@
+/*
+ * Licensed to Neo4j under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Neo4j licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.neo4j.examples;
+
+import java.io.File;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+import org.neo4j.dbms.api.DatabaseManagementService;
+import org.neo4j.dbms.api.DatabaseManagementServiceBuilder;
+import org.neo4j.graphdb.GraphDatabaseService;
+import org.neo4j.graphdb.Node;
+import org.neo4j.graphdb.RelationshipType;
+import org.neo4j.graphdb.Transaction;
+import org.neo4j.io.fs.FileUtils;
+
+import static org.neo4j.configuration.GraphDatabaseSettings.DEFAULT_DATABASE_NAME;
+
+/**
+ * Grows a binary tree of {@code CHILD} relationships for a fixed amount of time, as a reproducible write throughput benchmark.
+ * <p>
+ * Unlike {@link TerminateTransactions}, which builds the tree in one transaction until it is terminated and so loses
+ * everything, this commits every {@code chunkSize} nodes and checks the deadline cooperatively between writes. Everything
+ * created up to the deadline is kept. The tree is numbered like a binary heap, so the parent of the n:th node is the
+ * {@code (n - 1) / 2}:th node and only the node ids need to be remembered between chunks.
+ * <p>
+ * Progress reports are scheduled on a single executor owned by the builder, which is reused by every build and shut down
+ * by {@link #close()}.
+ */
+public class TimeBudgetedTreeBuilder implements AutoCloseable
+{
+    private static final File databaseDirectory = new File( "target/neo4j-tree-builder-db" );
+    private static final RelationshipType CHILD = RelationshipType.withName( "CHILD" );
+    private static final int DEADLINE_CHECK_INTERVAL = 64;
+
+    private final GraphDatabaseService graphDb;
+    private final int chunkSize;
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+
+    public static void main( String[] args ) throws IOException
+    {
+        long seconds = args.length > 0 ? Long.parseLong( args[0] ) : 10;
+        int chunkSize = args.length > 1 ? Integer.parseInt( args[1] ) : 10_000;
+
+        FileUtils.deleteRecursively( databaseDirectory );
+        DatabaseManagementService managementService = new DatabaseManagementServiceBuilder( databaseDirectory ).build();
+        try ( TimeBudgetedTreeBuilder builder = new TimeBudgetedTreeBuilder( managementService.database( DEFAULT_DATABASE_NAME ), chunkSize ) )
+        {
+            BuildStatistics statistics = builder.build( Duration.ofSeconds( seconds ), Duration.ofSeconds( 1 ),
+                    progress -> System.out.println( "  " + progress ) );
+            System.out.println( statistics );
+        }
+        finally
+        {
+            managementService.shutdown();
+        }
+    }
+
+    public TimeBudgetedTreeBuilder( GraphDatabaseService graphDb, int chunkSize )
+    {
+        if ( chunkSize < 1 )
+        {
+            throw new IllegalArgumentException( "Chunk size must be at least 1, was " + chunkSize );
+        }
+        this.graphDb = graphDb;
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Builds a new tree until the time budget is used up.
+     *
+     * @param budget how long to keep building.
+     * @return what was built and committed.
+     */
+    public BuildStatistics build( Duration budget )
+    {
+        return build( budget, null, null );
+    }
+
+    /**
+     * Builds a new tree until the time budget is used up, reporting progress periodically.
+     *
+     * @param budget how long to keep building.
+     * @param reportInterval how often to report progress.
+     * @param progress receives what has been committed so far, from the builder's scheduler thread.
+     * @return what was built and committed.
+     */
+    public BuildStatistics build( Duration budget, Duration reportInterval, Consumer<BuildStatistics> progress )
+    {
+        long startNanos = System.nanoTime();
+        long deadline = startNanos + budget.toNanos();
+        // Published as one immutable snapshot, so the reporter never sees a node count from one update with the time of another
+        AtomicReference<BuildStatistics> committed = new AtomicReference<>( new BuildStatistics( 0, Duration.ZERO ) );
+        ScheduledFuture<?> reporter = null;
+        if ( progress != null )
+        {
+            long intervalMillis = reportInterval.toMillis();
+            reporter = scheduler.scheduleAtFixedRate( () -> progress.accept( committed.get() ), intervalMillis, intervalMillis,
+                    TimeUnit.MILLISECONDS );
+        }
+
+        try
+        {
+            long[] nodeIds = new long[1024];
+            try ( Transaction tx = graphDb.beginTx() )
+            {
+                nodeIds[0] = tx.createNode().getId();
+                tx.commit();
+            }
+            committed.set( statistics( 1, startNanos ) );
+
+            int count = 1;
+            while ( System.nanoTime() < deadline )
+            {
+                try ( Transaction tx = graphDb.beginTx() )
+                {
+                    Node parent = null;
+                    for ( int i = 0; i < chunkSize; i++ )
+                    {
+                        if ( i % DEADLINE_CHECK_INTERVAL == 0 && System.nanoTime() >= deadline )
+                        {
+                            break;
+                        }
+                        int parentIndex = (count - 1) / 2;
+                        if ( parent == null || parent.getId() != nodeIds[parentIndex] )
+                        {
+                            parent = tx.getNodeById( nodeIds[parentIndex] );
+                        }
+                        Node child = tx.createNode();
+                        parent.createRelationshipTo( child, CHILD );
+
+                        if ( count == nodeIds.length )
+                        {
+                            nodeIds = Arrays.copyOf( nodeIds, count * 2 );
+                        }
+                        nodeIds[count++] = child.getId();
+                    }
+                    tx.commit();
+                }
+                committed.set( statistics( count, startNanos ) );
+            }
+            return committed.get();
+        }
+        finally
+        {
+            if ( reporter != null )
+            {
+                reporter.cancel( false );
+            }
+        }
+    }
+
+    @Override
+    public void close()
+    {
+        scheduler.shutdownNow();
+    }
+
+    private static BuildStatistics statistics( long nodes, long startNanos )
+    {
+        return new BuildStatistics( nodes, Duration.ofNanos( System.nanoTime() - startNanos ) );
+    }
+
+    /**
+     * The size of a committed tree and how long it took to build.
+     */
+    public static class BuildStatistics
+    {
+        private final long nodes;
+        private final Duration elapsed;
+
+        BuildStatistics( long nodes, Duration elapsed )
+        {
+            this.nodes = nodes;
+            this.elapsed = elapsed;
+        }
+
+        public long getNodes()
+        {
+            return nodes;
+        }
+
+        public long getRelationships()
+        {
+            return Math.max( 0, nodes - 1 );
+        }
+
+        /**
+         * @return the number of levels in the tree, the last of which may be incomplete.
+         */
+        public int getDepth()
+        {
+            return Long.SIZE - Long.numberOfLeadingZeros( nodes );
+        }
+
+        public Duration getElapsed()
+        {
+            return elapsed;
+        }
+
+        public double getNodesPerSecond()
+        {
+            return perSecond( nodes );
+        }
+
+        public double getRelationshipsPerSecond()
+        {
+            return perSecond( getRelationships() );
+        }
+
+        private double perSecond( long count )
+        {
+            double seconds = elapsed.toNanos() / 1_000_000_000d;
+            return seconds > 0 ? count / seconds : 0;
+        }
+
+        @Override
+        public String toString()
+        {
+            return String.format( "Created tree up to depth %d with %d nodes and %d relationships in %d ms (%.0f nodes/s, %.0f relationships/s)",
+                    getDepth(), nodes, getRelationships(), elapsed.toMillis(), getNodesPerSecond(), getRelationshipsPerSecond() );
+        }
+    }
+}
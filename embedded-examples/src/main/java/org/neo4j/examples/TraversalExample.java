@@ -92,12 +92,18 @@ public class TraversalExample
         {
             joe = tx.getNodeById( joe.getId() );
             init( tx );
-            out.println( knowsLikesTraverser( tx, joe ) );
-            out.println( traverseBaseTraverser( joe ) );
-            out.println( depth3( joe ) );
-            out.println( depth4( joe ) );
-            out.println( nodes( joe ) );
-            out.println( relationships( joe ) );
+            knowsLikesTraverser( tx, joe, out );
+            out.println();
+            traverseBaseTraverser( joe, out );
+            out.println();
+            depth3( joe, out );
+            out.println();
+            depth4( joe, out );
+            out.println();
+            nodes( joe, out );
+            out.println();
+            relationships( joe, out );
+            out.println();
         }
     }
 
@@ -113,7 +119,7 @@ public class TraversalExample
 
     public String knowsLikesTraverser( Transaction transaction, Node node )
     {
-        String output = "";
+        StringBuilder output = new StringBuilder();
         // tag::knowslikestraverser[]
         for ( Path position : transaction.traversalDescription()
                 .depthFirst()
@@ -122,79 +128,137 @@ public class TraversalExample
                 .evaluator( Evaluators.toDepth( 5 ) )
                 .traverse( node ) )
         {
-            output += position + "\n";
+            output.append( position ).append( "\n" );
         }
         // end::knowslikestraverser[]
-        return output;
+        return output.toString();
+    }
+
+    public void knowsLikesTraverser( Transaction transaction, Node node, Appendable output )
+    {
+        PathWriter writer = new PathWriter( output );
+        writer.printlnAll( transaction.traversalDescription()
+                .depthFirst()
+                .relationships( Rels.KNOWS )
+                .relationships( Rels.LIKES, Direction.INCOMING )
+                .evaluator( Evaluators.toDepth( 5 ) )
+                .traverse( node ) );
+        writer.flush();
     }
 
     public String traverseBaseTraverser( Node node )
     {
-        String output = "";
+        StringBuilder output = new StringBuilder();
         // tag::traversebasetraverser[]
         for ( Path path : friendsTraversal.traverse( node ) )
         {
-            output += path + "\n";
+            output.append( path ).append( "\n" );
         }
         // end::traversebasetraverser[]
-        return output;
+        return output.toString();
+    }
+
+    public void traverseBaseTraverser( Node node, Appendable output )
+    {
+        PathWriter writer = new PathWriter( output );
+        writer.printlnAll( friendsTraversal.traverse( node ) );
+        writer.flush();
     }
 
     public String depth3( Node node )
     {
-        String output = "";
+        StringBuilder output = new StringBuilder();
         // tag::depth3[]
         for ( Path path : friendsTraversal
                 .evaluator( Evaluators.toDepth( 3 ) )
                 .traverse( node ) )
         {
-            output += path + "\n";
+            output.append( path ).append( "\n" );
         }
         // end::depth3[]
-        return output;
+        return output.toString();
+    }
+
+    public void depth3( Node node, Appendable output )
+    {
+        PathWriter writer = new PathWriter( output );
+        writer.printlnAll( friendsTraversal
+                .evaluator( Evaluators.toDepth( 3 ) )
+                .traverse( node ) );
+        writer.flush();
     }
 
     public String depth4( Node node )
     {
-        String output = "";
+        StringBuilder output = new StringBuilder();
         // tag::depth4[]
         for ( Path path : friendsTraversal
                 .evaluator( Evaluators.fromDepth( 2 ) )
                 .evaluator( Evaluators.toDepth( 4 ) )
                 .traverse( node ) )
         {
-            output += path + "\n";
+            output.append( path ).append( "\n" );
         }
         // end::depth4[]
-        return output;
+        return output.toString();
+    }
+
+    public void depth4( Node node, Appendable output )
+    {
+        PathWriter writer = new PathWriter( output );
+        writer.printlnAll( friendsTraversal
+                .evaluator( Evaluators.fromDepth( 2 ) )
+                .evaluator( Evaluators.toDepth( 4 ) )
+                .traverse( node ) );
+        writer.flush();
     }
 
     public String nodes( Node node )
     {
-        String output = "";
+        StringBuilder output = new StringBuilder();
         // tag::nodes[]
         for ( Node currentNode : friendsTraversal
                 .traverse( node )
                 .nodes() )
         {
-            output += currentNode.getProperty( "name" ) + "\n";
+            output.append( currentNode.getProperty( "name" ) ).append( "\n" );
         }
         // end::nodes[]
-        return output;
+        return output.toString();
+    }
+
+    public void nodes( Node node, Appendable output )
+    {
+        PathWriter writer = new PathWriter( output );
+        for ( Node currentNode : friendsTraversal.traverse( node ).nodes() )
+        {
+            writer.println( currentNode.getProperty( "name" ) );
+        }
+        writer.flush();
     }
 
     public String relationships( Node node )
     {
-        String output = "";
+        StringBuilder output = new StringBuilder();
         // tag::relationships[]
         for ( Relationship relationship : friendsTraversal
                 .traverse( node )
                 .relationships() )
         {
-            output += relationship.getType().name() + "\n";
+            output.append( relationship.getType().name() ).append( "\n" );
         }
         // end::relationships[]
-        return output;
+        return output.toString();
+    }
+
+    public void relationships( Node node, Appendable output )
+    {
+        PathWriter writer = new PathWriter( output );
+        for ( Relationship relationship : friendsTraversal.traverse( node ).relationships() )
+        {
+            writer.println( relationship.getType().name() );
+        }
+        writer.flush();
     }
 
     // tag::sourceRels[]
@@ -23,6 +23,7 @@ import java.util.ArrayList;
 
 import org.neo4j.dbms.api.DatabaseManagementService;
 import org.neo4j.dbms.api.DatabaseManagementServiceBuilder;
+import org.neo4j.examples.PathWriter;
 import org.neo4j.graphdb.GraphDatabaseService;
 import org.neo4j.graphdb.Node;
 import org.neo4j.graphdb.Path;
@@ -123,19 +124,37 @@ public class OrderedPath
         return td;
     }
 
+    public TraversalDescription findPathsByExpansion( Transaction tx )
+    {
+        // tag::walkOrderedPathByExpansion[]
+        TraversalDescription td = OrderedTypeExpander.orderedPaths( tx, REL1, REL2, REL3 );
+        // end::walkOrderedPathByExpansion[]
+        return td;
+    }
+
     String printPaths( Transaction tx, TraversalDescription td, Node A )
     {
-        String output = "";
+        StringBuilder output = new StringBuilder();
         // tag::printPath[]
         Traverser traverser = td.traverse( tx.getNodeById( A.getId() ) );
         PathPrinter pathPrinter = new PathPrinter( "name" );
         for ( Path path : traverser )
         {
-            output += Paths.pathToString( path, pathPrinter );
+            output.append( Paths.pathToString( path, pathPrinter ) );
         }
         // end::printPath[]
-        output += "\n";
-        return output;
+        output.append( "\n" );
+        return output.toString();
+    }
+
+    void printPaths( Transaction tx, TraversalDescription td, Node A, Appendable output )
+    {
+        PathWriter writer = new PathWriter( output, new PathPrinter( "name" ) );
+        for ( Path path : td.traverse( tx.getNodeById( A.getId() ) ) )
+        {
+            writer.print( path );
+        }
+        writer.flush();
     }
 
     // tag::pathPrinter[]
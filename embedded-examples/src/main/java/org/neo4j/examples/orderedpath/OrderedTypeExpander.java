@@ -0,0 +1,90 @@
+/*
+ * Licensed to Neo4j under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Neo4j licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.neo4j.examples.orderedpath;
+
+import java.util.Collections;
+
+import org.neo4j.graphdb.Direction;
+import org.neo4j.graphdb.Path;
+import org.neo4j.graphdb.PathExpander;
+import org.neo4j.graphdb.Relationship;
+import org.neo4j.graphdb.RelationshipType;
+import org.neo4j.graphdb.Transaction;
+import org.neo4j.graphdb.traversal.BranchState;
+import org.neo4j.graphdb.traversal.Evaluators;
+import org.neo4j.graphdb.traversal.TraversalDescription;
+import org.neo4j.graphdb.traversal.Uniqueness;
+
+/**
+ * Expands only the relationship type that is expected at the current depth of an ordered sequence of types.
+ * <p>
+ * Where an {@link org.neo4j.graphdb.traversal.Evaluator} checks the type of the last relationship after a path has been
+ * expanded, this expander asks the end node for relationships of the expected type only, so branches with the wrong
+ * type are never created.
+ */
+public class OrderedTypeExpander implements PathExpander<Object>
+{
+    private final RelationshipType[] types;
+    private final Direction direction;
+
+    public OrderedTypeExpander( Direction direction, RelationshipType... types )
+    {
+        this.types = types.clone();
+        this.direction = direction;
+    }
+
+    /**
+     * Describes a traversal that returns the paths following the given types in order, in any direction.
+     * Like the evaluator based traversal, it uses {@link Uniqueness#NODE_PATH}, so no path visits the same node twice. Without it, a
+     * type that is repeated in the sequence would let a path go straight back over the relationship it just followed.
+     *
+     * @param tx the transaction to traverse in.
+     * @param types the relationship types, in the order they must appear along the paths.
+     * @return the traversal description.
+     */
+    public static TraversalDescription orderedPaths( Transaction tx, RelationshipType... types )
+    {
+        return tx.traversalDescription()
+                .expand( new OrderedTypeExpander( Direction.BOTH, types ) )
+                .evaluator( Evaluators.atDepth( types.length ) )
+                .uniqueness( Uniqueness.NODE_PATH );
+    }
+
+    @Override
+    public Iterable<Relationship> expand( Path path, BranchState<Object> state )
+    {
+        int depth = path.length();
+        if ( depth >= types.length )
+        {
+            return Collections.emptyList();
+        }
+        return path.endNode().getRelationships( direction, types[depth] );
+    }
+
+    @Override
+    public PathExpander<Object> reverse()
+    {
+        RelationshipType[] reversed = new RelationshipType[types.length];
+        for ( int i = 0; i < types.length; i++ )
+        {
+            reversed[i] = types[types.length - 1 - i];
+        }
+        return new OrderedTypeExpander( direction.reverse(), reversed );
+    }
+}
@@ -0,0 +1,210 @@
+/*
+ * Licensed to Neo4j under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Neo4j licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.neo4j.examples;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+
+import org.neo4j.dbms.api.DatabaseManagementService;
+import org.neo4j.dbms.api.DatabaseManagementServiceBuilder;
+import org.neo4j.graphdb.GraphDatabaseService;
+import org.neo4j.graphdb.Label;
+import org.neo4j.graphdb.Transaction;
+import org.neo4j.io.fs.FileUtils;
+
+import static org.neo4j.configuration.GraphDatabaseSettings.DEFAULT_DATABASE_NAME;
+
+/**
+ * Measures how many nodes per second {@link BatchedGetOrCreate} creates for combinations of worker count and
+ * batch size, next to the one transaction per key {@code MERGE} from the get-or-create documentation. Like
+ * {@code GetOrCreateDocIT}, that baseline runs on twice as many threads as there are available processors.
+ * <p>
+ * Every combination merges the same number of new keys into a fresh database, then merges them once more to show
+ * the cost of finding rather than creating. A smaller untimed pass over every strategy runs first, so that the
+ * first timed run does not also pay for class loading and JIT compilation.
+ * <p>
+ * Usage: {@code BatchedGetOrCreateBenchmark [keys] [workers,...] [batchSizes,...]}
+ */
+public class BatchedGetOrCreateBenchmark
+{
+    private static final File databaseDirectory = new File( "target/batched-get-or-create-benchmark-db" );
+    private static final Label USER = Label.label( "User" );
+    private static final int SINGLE_THREADS = Runtime.getRuntime().availableProcessors() * 2;
+    private static final int WARMUP_KEYS = 10_000;
+
+    public static void main( String[] args ) throws Exception
+    {
+        int keys = args.length > 0 ? Integer.parseInt( args[0] ) : 100_000;
+        int[] workerCounts = parse( args.length > 1 ? args[1] : "1,2,4," + Runtime.getRuntime().availableProcessors() * 2 );
+        int[] batchSizes = parse( args.length > 2 ? args[2] : "1,100,1000,10000" );
+
+        List<String> names = new ArrayList<>( keys );
+        for ( int i = 0; i < keys; i++ )
+        {
+            names.add( "user" + i );
+        }
+
+        runAll( workerCounts, batchSizes, names.subList( 0, Math.min( keys, WARMUP_KEYS ) ), false );
+
+        System.out.println( String.format( "%-10s %8s %8s %14s %14s", "strategy", "workers", "batch", "created/s", "found/s" ) );
+        runAll( workerCounts, batchSizes, names, true );
+    }
+
+    private static void runAll( int[] workerCounts, int[] batchSizes, List<String> names, boolean report ) throws Exception
+    {
+        run( "single", SINGLE_THREADS, 1, names, report );
+        for ( int workers : workerCounts )
+        {
+            for ( int batchSize : batchSizes )
+            {
+                run( "batched", workers, batchSize, names, report );
+            }
+        }
+    }
+
+    private static void run( String strategy, int workers, int batchSize, List<String> names, boolean report ) throws IOException
+    {
+        FileUtils.deleteRecursively( databaseDirectory );
+        DatabaseManagementService managementService = new DatabaseManagementServiceBuilder( databaseDirectory ).build();
+        try
+        {
+            GraphDatabaseService graphDb = managementService.database( DEFAULT_DATABASE_NAME );
+            createConstraint( graphDb );
+            if ( "single".equals( strategy ) )
+            {
+                double created = timed( names.size(), () -> inParallel( workers, names, name -> mergeOne( graphDb, name ) ) );
+                double found = timed( names.size(), () -> inParallel( workers, names, name -> mergeOne( graphDb, name ) ) );
+                if ( report )
+                {
+                    report( strategy, workers, batchSize, created, found, null );
+                }
+                return;
+            }
+            try ( BatchedGetOrCreate getOrCreate = new BatchedGetOrCreate( new RetryingTransactionExecutor( graphDb ), USER, "name", workers,
+                    batchSize ) )
+            {
+                double created = timed( names.size(), () -> getOrCreate.getOrCreate( names ) );
+                double found = timed( names.size(), () -> getOrCreate.getOrCreate( names ) );
+                if ( getOrCreate.created() != names.size() )
+                {
+                    throw new IllegalStateException( "Created " + getOrCreate.created() + " nodes for " + names.size() + " keys" );
+                }
+                if ( report )
+                {
+                    report( strategy, workers, batchSize, created, found, getOrCreate.metrics() );
+                }
+            }
+        }
+        finally
+        {
+            managementService.shutdown();
+        }
+    }
+
+    private static void createConstraint( GraphDatabaseService graphDb )
+    {
+        try ( Transaction tx = graphDb.beginTx() )
+        {
+            tx.schema().constraintFor( USER ).assertPropertyIsUnique( "name" ).withName( "usernames" ).create();
+            tx.commit();
+        }
+    }
+
+    private static void mergeOne( GraphDatabaseService graphDb, String name )
+    {
+        try ( Transaction tx = graphDb.beginTx() )
+        {
+            tx.execute( "MERGE (n:User {name: $name}) RETURN n", Map.of( "name", name ) ).close();
+            tx.commit();
+        }
+    }
+
+    /**
+     * Runs the action for every name on the given number of threads, each thread taking every n-th name.
+     */
+    private static void inParallel( int threads, List<String> names, Consumer<String> action )
+    {
+        ExecutorService executor = Executors.newFixedThreadPool( threads );
+        try
+        {
+            List<Future<?>> futures = new ArrayList<>( threads );
+            for ( int t = 0; t < threads; t++ )
+            {
+                int first = t;
+                futures.add( executor.submit( () ->
+                {
+                    for ( int i = first; i < names.size(); i += threads )
+                    {
+                        action.accept( names.get( i ) );
+                    }
+                } ) );
+            }
+            for ( Future<?> future : futures )
+            {
+                future.get();
+            }
+        }
+        catch ( InterruptedException e )
+        {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException( e );
+        }
+        catch ( ExecutionException e )
+        {
+            throw new RuntimeException( e.getCause() );
+        }
+        finally
+        {
+            executor.shutdownNow();
+        }
+    }
+
+    private static double timed( int operations, Runnable work )
+    {
+        long start = System.nanoTime();
+        work.run();
+        return operations * 1e9 / (System.nanoTime() - start);
+    }
+
+    private static void report( String strategy, int workers, int batchSize, double created, double found,
+            RetryingTransactionExecutor.TransactionTypeMetrics metrics )
+    {
+        System.out.println( String.format( "%-10s %8d %8d %14.0f %14.0f%s", strategy, workers, batchSize, created, found,
+                metrics == null ? "" : "   " + metrics ) );
+    }
+
+    private static int[] parse( String list )
+    {
+        String[] parts = list.split( "," );
+        int[] values = new int[parts.length];
+        for ( int i = 0; i < parts.length; i++ )
+        {
+            values[i] = Integer.parseInt( parts[i].trim() );
+        }
+        return values;
+    }
+}
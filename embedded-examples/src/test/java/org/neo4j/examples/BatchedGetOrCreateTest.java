@@ -0,0 +1,128 @@
+/*
+ * Licensed to Neo4j under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Neo4j licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.neo4j.examples;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.neo4j.dbms.api.DatabaseManagementService;
+import org.neo4j.dbms.api.DatabaseManagementServiceBuilder;
+import org.neo4j.graphdb.GraphDatabaseService;
+import org.neo4j.graphdb.Label;
+import org.neo4j.graphdb.Node;
+import org.neo4j.graphdb.Transaction;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.neo4j.configuration.GraphDatabaseSettings.DEFAULT_DATABASE_NAME;
+
+class BatchedGetOrCreateTest
+{
+    private static final Label USER = Label.label( "User" );
+
+    @TempDir
+    private File directory;
+    private DatabaseManagementService managementService;
+    private GraphDatabaseService graphDb;
+
+    @BeforeEach
+    void startDatabase()
+    {
+        managementService = new DatabaseManagementServiceBuilder( directory ).build();
+        graphDb = managementService.database( DEFAULT_DATABASE_NAME );
+        try ( Transaction tx = graphDb.beginTx() )
+        {
+            tx.schema().constraintFor( USER ).assertPropertyIsUnique( "name" ).withName( "usernames" ).create();
+            tx.commit();
+        }
+    }
+
+    @AfterEach
+    void stopDatabase()
+    {
+        managementService.shutdown();
+    }
+
+    @Test
+    void shouldCreateMissingNodesAndFindExistingOnes()
+    {
+        try ( BatchedGetOrCreate getOrCreate = new BatchedGetOrCreate( new RetryingTransactionExecutor( graphDb ), USER, "name", 3, 2 ) )
+        {
+            Map<String, Long> first = getOrCreate.getOrCreate( Arrays.asList( "alice", "bob", "carol", "alice", "dave", "erin" ) );
+            Map<String, Long> second = getOrCreate.getOrCreate( Arrays.asList( "bob", "erin", "frank" ) );
+
+            assertEquals( 5, first.size() );
+            assertEquals( first.get( "bob" ), second.get( "bob" ) );
+            assertEquals( first.get( "erin" ), second.get( "erin" ) );
+            assertEquals( 6, getOrCreate.created() );
+            try ( Transaction tx = graphDb.beginTx() )
+            {
+                Node frank = tx.getNodeById( second.get( "frank" ) );
+                assertEquals( "frank", frank.getProperty( "name" ) );
+            }
+        }
+    }
+
+    @Test
+    void shouldCreateEachKeyOnceUnderConcurrentCallers() throws Exception
+    {
+        List<String> names = new ArrayList<>();
+        for ( int i = 0; i < 500; i++ )
+        {
+            names.add( "user" + i );
+        }
+        ExecutorService callers = Executors.newFixedThreadPool( 4 );
+        try ( BatchedGetOrCreate getOrCreate = new BatchedGetOrCreate( new RetryingTransactionExecutor( graphDb ), USER, "name", 4, 50 ) )
+        {
+            List<Future<Map<String, Long>>> results = new ArrayList<>();
+            for ( int i = 0; i < 4; i++ )
+            {
+                results.add( callers.submit( () -> getOrCreate.getOrCreate( names ) ) );
+            }
+            Map<String, Long> expected = results.get( 0 ).get();
+            for ( Future<Map<String, Long>> result : results )
+            {
+                assertEquals( expected, result.get() );
+            }
+            assertEquals( names.size(), getOrCreate.created() );
+        }
+        finally
+        {
+            callers.shutdown();
+        }
+        try ( Transaction tx = graphDb.beginTx() )
+        {
+            for ( String name : names )
+            {
+                assertNotNull( tx.findNode( USER, "name", name ) );
+            }
+        }
+    }
+}
@@ -0,0 +1,144 @@
+/*
+ * Licensed to Neo4j under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Neo4j licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.neo4j.examples;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.neo4j.dbms.api.DatabaseManagementService;
+import org.neo4j.dbms.api.DatabaseManagementServiceBuilder;
+import org.neo4j.examples.ChangeCapturingTransactionEventListener.ChangeBatch;
+import org.neo4j.graphdb.GraphDatabaseService;
+import org.neo4j.graphdb.Label;
+import org.neo4j.graphdb.Node;
+import org.neo4j.graphdb.RelationshipType;
+import org.neo4j.graphdb.Transaction;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.neo4j.configuration.GraphDatabaseSettings.DEFAULT_DATABASE_NAME;
+
+class ChangeCapturingTransactionEventListenerTest
+{
+    @TempDir
+    private File directory;
+    private DatabaseManagementService managementService;
+    private GraphDatabaseService graphDb;
+
+    @BeforeEach
+    void startDatabase()
+    {
+        managementService = new DatabaseManagementServiceBuilder( directory ).build();
+        graphDb = managementService.database( DEFAULT_DATABASE_NAME );
+    }
+
+    @AfterEach
+    void stopDatabase()
+    {
+        managementService.shutdown();
+    }
+
+    @Test
+    void shouldDeliverAggregatedChangesOfCommittedTransactions() throws Exception
+    {
+        List<ChangeBatch> batches = new ArrayList<>();
+        ChangeCapturingTransactionEventListener listener = new ChangeCapturingTransactionEventListener( 16, 2, batches::add );
+        managementService.registerTransactionEventListener( DEFAULT_DATABASE_NAME, listener );
+
+        for ( int i = 0; i < 3; i++ )
+        {
+            try ( Transaction tx = graphDb.beginTx() )
+            {
+                Node person = tx.createNode( Label.label( "Person" ) );
+                Node city = tx.createNode( Label.label( "City" ) );
+                person.createRelationshipTo( city, RelationshipType.withName( "LIVES_IN" ) );
+                person.setProperty( "name", "Person " + i );
+                tx.commit();
+            }
+        }
+        try ( Transaction tx = graphDb.beginTx() )
+        {
+            tx.createNode();
+            tx.rollback();
+        }
+
+        managementService.unregisterTransactionEventListener( DEFAULT_DATABASE_NAME, listener );
+        listener.close();
+
+        long records = 0;
+        long createdNodes = 0;
+        long persons = 0;
+        long livesIn = 0;
+        long propertyChanges = 0;
+        for ( ChangeBatch batch : batches )
+        {
+            records += batch.getRecords().size();
+            createdNodes += batch.getCreatedNodes();
+            persons += batch.getAssignedLabels().getOrDefault( "Person", 0L );
+            livesIn += batch.getCreatedRelationshipTypes().getOrDefault( "LIVES_IN", 0L );
+            propertyChanges += batch.getPropertyChanges();
+        }
+        assertEquals( 3, records );
+        assertEquals( 6, createdNodes );
+        assertEquals( 3, persons );
+        assertEquals( 3, livesIn );
+        assertEquals( 3, propertyChanges );
+        assertEquals( 0, listener.getDroppedRecords() );
+    }
+
+    @Test
+    void shouldKeepDrainingWhenConsumerFailsAndCountRecordsAfterClose() throws Exception
+    {
+        ChangeCapturingTransactionEventListener listener = new ChangeCapturingTransactionEventListener( 1, 1, batch ->
+        {
+            throw new IllegalStateException( "consumer failure" );
+        } );
+        managementService.registerTransactionEventListener( DEFAULT_DATABASE_NAME, listener );
+
+        // More transactions than the queue holds, so a drainer that died on the first failure would make close() block
+        for ( int i = 0; i < 10; i++ )
+        {
+            try ( Transaction tx = graphDb.beginTx() )
+            {
+                tx.createNode();
+                tx.commit();
+            }
+        }
+
+        assertTrue( listener.close( Duration.ofSeconds( 10 ) ) );
+        assertEquals( 10, listener.getFailedBatches() + listener.getDroppedRecords() );
+        assertTrue( listener.getFailedBatches() > 0 );
+
+        long droppedBefore = listener.getDroppedRecords();
+        try ( Transaction tx = graphDb.beginTx() )
+        {
+            tx.createNode();
+            tx.commit();
+        }
+        managementService.unregisterTransactionEventListener( DEFAULT_DATABASE_NAME, listener );
+        assertEquals( droppedBefore + 1, listener.getDroppedRecords() );
+    }
+}
@@ -0,0 +1,173 @@
+/*
+ * Licensed to Neo4j under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Neo4j licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.neo4j.examples;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+
+import org.neo4j.configuration.GraphDatabaseSettings;
+import org.neo4j.dbms.api.DatabaseManagementService;
+import org.neo4j.dbms.api.DatabaseManagementServiceBuilder;
+import org.neo4j.doc.kernel.impl.proc.JarBuilder;
+import org.neo4j.graphdb.GraphDatabaseService;
+import org.neo4j.graphdb.Node;
+import org.neo4j.graphdb.QueryExecutionException;
+import org.neo4j.graphdb.RelationshipType;
+import org.neo4j.graphdb.Result;
+import org.neo4j.graphdb.Transaction;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.neo4j.configuration.GraphDatabaseSettings.DEFAULT_DATABASE_NAME;
+import static org.neo4j.internal.helpers.collection.MapUtil.map;
+
+class DenseNodeAnalysisTest
+{
+    private static final RelationshipType KNOWS = RelationshipType.withName( "KNOWS" );
+    private static final RelationshipType LIKES = RelationshipType.withName( "LIKES" );
+
+    @TempDir
+    private File directory;
+    private DatabaseManagementService managementService;
+    private GraphDatabaseService db;
+    private long hub;
+    private long secondHub;
+
+    @BeforeEach
+    void setUp() throws Exception
+    {
+        new JarBuilder().createJarFor( new File( directory, "denseNodes.jar" ), DenseNodeAnalysis.class, DenseNodeAnalysis.DegreeScan.class,
+                DenseNodeAnalysis.NodeDegrees.class, DenseNodeAnalysis.DegreeBucket.class );
+        managementService = new DatabaseManagementServiceBuilder( directory )
+                .setConfig( GraphDatabaseSettings.plugin_dir, directory.toPath().toAbsolutePath() ).build();
+        db = managementService.database( DEFAULT_DATABASE_NAME );
+
+        try ( Transaction tx = db.beginTx() )
+        {
+            Node hubNode = tx.createNode();
+            Node secondHubNode = tx.createNode();
+            for ( int i = 0; i < 5; i++ )
+            {
+                hubNode.createRelationshipTo( tx.createNode(), i % 2 == 0 ? KNOWS : LIKES );
+            }
+            secondHubNode.createRelationshipTo( hubNode, KNOWS );
+            secondHubNode.createRelationshipTo( tx.createNode(), KNOWS );
+            hub = hubNode.getId();
+            secondHub = secondHubNode.getId();
+            tx.commit();
+        }
+    }
+
+    @AfterEach
+    void tearDown()
+    {
+        managementService.shutdown();
+    }
+
+    @Test
+    void shouldFindTopDenseNodesWithDegreesPerType()
+    {
+        try ( Transaction tx = db.beginTx() )
+        {
+            Result result = tx.execute( "CALL org.neo4j.examples.topDenseNodes(2, 3)" );
+
+            assertEquals( map( "nodeId", hub, "degree", 6L, "degreesByType", map( "KNOWS", 4L, "LIKES", 2L ) ), result.next() );
+            assertEquals( map( "nodeId", secondHub, "degree", 2L, "degreesByType", map( "KNOWS", 2L ) ), result.next() );
+            assertFalse( result.hasNext() );
+        }
+    }
+
+    @Test
+    void shouldComputeDegreeHistogram()
+    {
+        try ( Transaction tx = db.beginTx() )
+        {
+            Result result = tx.execute( "CALL org.neo4j.examples.degreeHistogram(3)" );
+
+            assertEquals( map( "minDegree", 1L, "maxDegree", 2L, "nodes", 6L ), result.next() );
+            assertEquals( map( "minDegree", 2L, "maxDegree", 4L, "nodes", 1L ), result.next() );
+            assertEquals( map( "minDegree", 4L, "maxDegree", 8L, "nodes", 1L ), result.next() );
+            assertFalse( result.hasNext() );
+        }
+    }
+
+    @Test
+    void shouldScanEveryRangeAndSkipDeletedNodes()
+    {
+        try ( Transaction tx = db.beginTx() )
+        {
+            for ( int i = 0; i < 2 * DenseNodeAnalysis.RANGE_SIZE; i++ )
+            {
+                Node node = tx.createNode();
+                if ( i % 2 == 0 )
+                {
+                    node.delete();
+                }
+            }
+            tx.getNodeById( hub ).createRelationshipTo( tx.createNode(), LIKES );
+            tx.commit();
+        }
+
+        try ( Transaction tx = db.beginTx() )
+        {
+            Result result = tx.execute( "CALL org.neo4j.examples.degreeHistogram(2)" );
+
+            assertEquals( map( "minDegree", 0L, "maxDegree", 1L, "nodes", (long) DenseNodeAnalysis.RANGE_SIZE ), result.next() );
+            assertEquals( map( "minDegree", 1L, "maxDegree", 2L, "nodes", 7L ), result.next() );
+            assertEquals( map( "minDegree", 2L, "maxDegree", 4L, "nodes", 1L ), result.next() );
+            assertEquals( map( "minDegree", 4L, "maxDegree", 8L, "nodes", 1L ), result.next() );
+            assertFalse( result.hasNext() );
+        }
+    }
+
+    @Test
+    void shouldCapPartitionsAtAvailableProcessors()
+    {
+        try ( Transaction tx = db.beginTx() )
+        {
+            Result result = tx.execute( "CALL org.neo4j.examples.topDenseNodes(1, 1000000)" );
+
+            assertEquals( hub, result.next().get( "nodeId" ) );
+            assertFalse( result.hasNext() );
+        }
+    }
+
+    @Test
+    void shouldRejectOutOfRangeArguments()
+    {
+        assertRejected( "CALL org.neo4j.examples.topDenseNodes(0)", "Limit must be between 1" );
+        assertRejected( "CALL org.neo4j.examples.topDenseNodes(4294967296)", "Limit must be between 1" );
+        assertRejected( "CALL org.neo4j.examples.degreeHistogram(-1)", "Partitions must not be negative" );
+    }
+
+    private void assertRejected( String query, String message )
+    {
+        try ( Transaction tx = db.beginTx() )
+        {
+            QueryExecutionException e = assertThrows( QueryExecutionException.class, () -> tx.execute( query ).next() );
+            assertTrue( e.getMessage(), e.getMessage().contains( message ) );
+        }
+    }
+}
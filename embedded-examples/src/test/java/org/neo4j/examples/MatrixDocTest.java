@@ -23,6 +23,7 @@ import org.junit.Test;
 
 import org.neo4j.doc.tools.JavaDocsGenerator;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 
 import static org.neo4j.visualization.asciidoc.AsciidocHelper.createOutputSnippet;
@@ -44,7 +45,13 @@ public class MatrixDocTest
         newMatrix.setUp();
         String friends = newMatrix.printNeoFriends();
         String hackers = newMatrix.printMatrixHackers();
+        StringBuilder streamedFriends = new StringBuilder();
+        newMatrix.printNeoFriends( streamedFriends );
+        StringBuilder streamedHackers = new StringBuilder();
+        newMatrix.printMatrixHackers( streamedHackers );
         newMatrix.shutdown();
+        assertEquals( friends, streamedFriends.toString() );
+        assertEquals( hackers, streamedHackers.toString() );
         check( friends, hackers );
         gen.saveToFile( "new-friends", createOutputSnippet( friends ) );
         gen.saveToFile( "new-hackers", createOutputSnippet( hackers ) );
@@ -0,0 +1,190 @@
+/*
+ * Licensed to Neo4j under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Neo4j licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.neo4j.examples;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+
+import org.neo4j.dbms.api.DatabaseManagementService;
+import org.neo4j.dbms.api.DatabaseManagementServiceBuilder;
+import org.neo4j.graphdb.GraphDatabaseService;
+import org.neo4j.graphdb.Node;
+import org.neo4j.graphdb.Path;
+import org.neo4j.graphdb.Transaction;
+import org.neo4j.graphdb.traversal.Paths;
+import org.neo4j.graphdb.traversal.TraversalDescription;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.neo4j.configuration.GraphDatabaseSettings.DEFAULT_DATABASE_NAME;
+import static org.neo4j.graphdb.RelationshipType.withName;
+
+class PathWriterTest
+{
+    private static final Paths.PathDescriptor<Path> NAMES = new Paths.DefaultPathDescriptor<>()
+    {
+        @Override
+        public String nodeRepresentation( Path path, Node node )
+        {
+            return "(" + node.getProperty( "name" ) + ")";
+        }
+    };
+
+    @TempDir
+    private File directory;
+    private DatabaseManagementService managementService;
+    private GraphDatabaseService graphDb;
+    private long startId;
+
+    @BeforeEach
+    void startDatabase()
+    {
+        managementService = new DatabaseManagementServiceBuilder( directory ).build();
+        graphDb = managementService.database( DEFAULT_DATABASE_NAME );
+        try ( Transaction tx = graphDb.beginTx() )
+        {
+            Node start = tx.execute( "CREATE (a {name: 'A'})-[:KNOWS]->(b {name: 'B'})<-[:KNOWS]-(c {name: 'C'}), " +
+                    "(c)-[:LIKES]->(d {name: 'D'}) RETURN a" ).<Node>columnAs( "a" ).next();
+            startId = start.getId();
+            tx.commit();
+        }
+    }
+
+    @AfterEach
+    void stopDatabase()
+    {
+        managementService.shutdown();
+    }
+
+    @Test
+    void shouldWritePathsLikePathToString()
+    {
+        try ( Transaction tx = graphDb.beginTx() )
+        {
+            StringBuilder expected = new StringBuilder();
+            for ( Path path : traversal( tx ).traverse( tx.getNodeById( startId ) ) )
+            {
+                expected.append( Paths.pathToString( path, NAMES ) ).append( "\n" );
+            }
+
+            StringBuilder actual = new StringBuilder();
+            long written = new PathWriter( actual, NAMES ).printlnAll( traversal( tx ).traverse( tx.getNodeById( startId ) ) );
+
+            assertEquals( 4, written );
+            assertEquals( expected.toString(), actual.toString() );
+        }
+    }
+
+    @Test
+    void shouldWritePathsLikeToStringWithoutDescriptor()
+    {
+        try ( Transaction tx = graphDb.beginTx() )
+        {
+            StringBuilder expected = new StringBuilder();
+            StringBuilder actual = new StringBuilder();
+            PathWriter writer = new PathWriter( actual );
+            for ( Path path : traversal( tx ).traverse( tx.getNodeById( startId ) ) )
+            {
+                expected.append( path ).append( "\n" );
+                writer.println( path );
+            }
+
+            assertEquals( expected.toString(), actual.toString() );
+        }
+    }
+
+    @Test
+    void shouldWriteThroughTheTraversalExamples()
+    {
+        try ( Transaction tx = graphDb.beginTx() )
+        {
+            TraversalExample example = new TraversalExample( graphDb );
+            example.init( tx );
+            Node start = tx.getNodeById( startId );
+
+            StringBuilder streamed = new StringBuilder();
+            example.nodes( start, streamed );
+            assertEquals( example.nodes( start ), streamed.toString() );
+            assertEquals( "A\nB\nC\n", streamed.toString() );
+
+            streamed.setLength( 0 );
+            example.relationships( start, streamed );
+            assertEquals( example.relationships( start ), streamed.toString() );
+
+            streamed.setLength( 0 );
+            example.traverseBaseTraverser( start, streamed );
+            assertEquals( example.traverseBaseTraverser( start ), streamed.toString() );
+
+            streamed.setLength( 0 );
+            example.depth3( start, streamed );
+            assertEquals( example.depth3( start ), streamed.toString() );
+
+            streamed.setLength( 0 );
+            example.depth4( start, streamed );
+            assertEquals( example.depth4( start ), streamed.toString() );
+
+            streamed.setLength( 0 );
+            example.knowsLikesTraverser( tx, start, streamed );
+            assertEquals( example.knowsLikesTraverser( tx, start ), streamed.toString() );
+        }
+    }
+
+    @Test
+    void shouldRethrowWriteFailuresUnchecked()
+    {
+        Writer failing = new Writer()
+        {
+            @Override
+            public void write( char[] buffer, int offset, int length ) throws IOException
+            {
+                throw new IOException( "disk full" );
+            }
+
+            @Override
+            public void flush() throws IOException
+            {
+                throw new IOException( "disk full" );
+            }
+
+            @Override
+            public void close()
+            {
+            }
+        };
+        PathWriter writer = new PathWriter( failing );
+
+        assertThrows( UncheckedIOException.class, () -> writer.println( "row" ) );
+        assertThrows( UncheckedIOException.class, writer::flush );
+    }
+
+    private static TraversalDescription traversal( Transaction tx )
+    {
+        return tx.traversalDescription()
+                .breadthFirst()
+                .relationships( withName( "KNOWS" ) )
+                .relationships( withName( "LIKES" ) );
+    }
+}
@@ -0,0 +1,200 @@
+/*
+ * Licensed to Neo4j under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Neo4j licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.neo4j.examples;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+import org.neo4j.dbms.api.DatabaseManagementService;
+import org.neo4j.dbms.api.DatabaseManagementServiceBuilder;
+import org.neo4j.graphdb.GraphDatabaseService;
+import org.neo4j.graphdb.Node;
+import org.neo4j.graphdb.Transaction;
+import org.neo4j.io.fs.FileUtils;
+import org.neo4j.kernel.DeadlockDetectedException;
+
+import static org.neo4j.configuration.GraphDatabaseSettings.DEFAULT_DATABASE_NAME;
+
+/**
+ * Contention benchmark comparing the fixed-sleep retry loop from the deadlock documentation with
+ * {@link RetryingTransactionExecutor}.
+ * <p>
+ * A number of threads repeatedly update two randomly chosen nodes out of a small set of hot nodes, in random order,
+ * which makes deadlocks frequent. Each strategy runs for the same amount of time and the number of committed
+ * transactions per second is reported.
+ * <p>
+ * Usage: {@code RetryingTransactionExecutorBenchmark [threads] [hotNodes] [seconds] [fixedBackoffMillis]}
+ */
+public class RetryingTransactionExecutorBenchmark
+{
+    private static final File databaseDirectory = new File( "target/retrying-tx-benchmark-db" );
+
+    public static void main( String[] args ) throws Exception
+    {
+        int threads = args.length > 0 ? Integer.parseInt( args[0] ) : Runtime.getRuntime().availableProcessors() * 2;
+        int hotNodes = args.length > 1 ? Integer.parseInt( args[1] ) : 10;
+        int seconds = args.length > 2 ? Integer.parseInt( args[2] ) : 30;
+        long fixedBackoffMillis = args.length > 3 ? Long.parseLong( args[3] ) : 3000;
+
+        FileUtils.deleteRecursively( databaseDirectory );
+        DatabaseManagementService managementService = new DatabaseManagementServiceBuilder( databaseDirectory ).build();
+        try
+        {
+            GraphDatabaseService graphDb = managementService.database( DEFAULT_DATABASE_NAME );
+            long[] nodeIds = createHotNodes( graphDb, hotNodes );
+
+            FixedSleepRetry fixedSleep = new FixedSleepRetry( graphDb, 5, fixedBackoffMillis );
+            report( "fixed sleep", run( threads, seconds, () -> fixedSleep.execute( tx -> updatePair( tx, nodeIds ) ) ), seconds );
+
+            RetryingTransactionExecutor executor = new RetryingTransactionExecutor( graphDb );
+            report( "adaptive", run( threads, seconds, () -> executor.execute( "updatePair", tx -> updatePair( tx, nodeIds ) ) ), seconds );
+            System.out.println( "  " + executor.metrics( "updatePair" ) );
+        }
+        finally
+        {
+            managementService.shutdown();
+        }
+    }
+
+    private static long[] createHotNodes( GraphDatabaseService graphDb, int count )
+    {
+        long[] nodeIds = new long[count];
+        try ( Transaction tx = graphDb.beginTx() )
+        {
+            for ( int i = 0; i < count; i++ )
+            {
+                nodeIds[i] = tx.createNode().getId();
+            }
+            tx.commit();
+        }
+        return nodeIds;
+    }
+
+    private static Object updatePair( Transaction tx, long[] nodeIds )
+    {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        Node first = tx.getNodeById( nodeIds[random.nextInt( nodeIds.length )] );
+        Node second = tx.getNodeById( nodeIds[random.nextInt( nodeIds.length )] );
+        first.setProperty( "counter", random.nextLong() );
+        second.setProperty( "counter", random.nextLong() );
+        return null;
+    }
+
+    private static Outcome run( int threads, int seconds, Runnable transaction ) throws InterruptedException
+    {
+        Outcome outcome = new Outcome();
+        long deadline = System.currentTimeMillis() + seconds * 1000L;
+        List<Thread> workers = new ArrayList<>();
+        for ( int i = 0; i < threads; i++ )
+        {
+            Thread worker = new Thread( () ->
+            {
+                while ( System.currentTimeMillis() < deadline )
+                {
+                    try
+                    {
+                        transaction.run();
+                        outcome.committed.increment();
+                    }
+                    catch ( RuntimeException e )
+                    {
+                        outcome.failed.increment();
+                    }
+                }
+            } );
+            workers.add( worker );
+            worker.start();
+        }
+        for ( Thread worker : workers )
+        {
+            worker.join();
+        }
+        return outcome;
+    }
+
+    private static void report( String strategy, Outcome outcome, int seconds )
+    {
+        System.out.println( String.format( "%-12s %10.1f tx/s committed, %d failed", strategy, outcome.committed.sum() / (double) seconds,
+                outcome.failed.sum() ) );
+    }
+
+    private static class Outcome
+    {
+        final LongAdder committed = new LongAdder();
+        final LongAdder failed = new LongAdder();
+    }
+
+    /**
+     * The retry loop as documented, with a fixed number of retries and a fixed sleep between them.
+     */
+    private static class FixedSleepRetry
+    {
+        private final GraphDatabaseService graphDb;
+        private final int retries;
+        private final long backoffMillis;
+
+        FixedSleepRetry( GraphDatabaseService graphDb, int retries, long backoffMillis )
+        {
+            this.graphDb = graphDb;
+            this.retries = retries;
+            this.backoffMillis = backoffMillis;
+        }
+
+        Object execute( Function<Transaction, Object> work )
+        {
+            RuntimeException txEx = null;
+            for ( int i = 0; i < retries; i++ )
+            {
+                try ( Transaction tx = graphDb.beginTx() )
+                {
+                    Object result = work.apply( tx );
+                    tx.commit();
+                    return result;
+                }
+                catch ( RuntimeException ex )
+                {
+                    txEx = ex;
+                    if ( !(ex instanceof DeadlockDetectedException) )
+                    {
+                        break;
+                    }
+                }
+
+                if ( i < retries - 1 )
+                {
+                    try
+                    {
+                        Thread.sleep( backoffMillis );
+                    }
+                    catch ( InterruptedException e )
+                    {
+                        Thread.currentThread().interrupt();
+                        throw new RuntimeException( e );
+                    }
+                }
+            }
+            throw txEx;
+        }
+    }
+}
@@ -0,0 +1,168 @@
+/*
+ * Licensed to Neo4j under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Neo4j licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.neo4j.examples;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.neo4j.dbms.api.DatabaseManagementService;
+import org.neo4j.dbms.api.DatabaseManagementServiceBuilder;
+import org.neo4j.graphdb.GraphDatabaseService;
+import org.neo4j.kernel.DeadlockDetectedException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+import static org.neo4j.configuration.GraphDatabaseSettings.DEFAULT_DATABASE_NAME;
+
+class RetryingTransactionExecutorTest
+{
+    @TempDir
+    private File directory;
+    private DatabaseManagementService managementService;
+    private GraphDatabaseService graphDb;
+
+    @BeforeEach
+    void startDatabase()
+    {
+        managementService = new DatabaseManagementServiceBuilder( directory ).build();
+        graphDb = managementService.database( DEFAULT_DATABASE_NAME );
+    }
+
+    @AfterEach
+    void stopDatabase()
+    {
+        managementService.shutdown();
+    }
+
+    @Test
+    void shouldRetryDeadlocksUntilCommitted()
+    {
+        RetryingTransactionExecutor executor = executor( 5, 100 );
+        AtomicInteger attempts = new AtomicInteger();
+
+        long nodeId = executor.execute( "create", tx ->
+        {
+            if ( attempts.incrementAndGet() < 3 )
+            {
+                throw new DeadlockDetectedException( "Simulated deadlock" );
+            }
+            return tx.createNode().getId();
+        } );
+
+        try ( var tx = graphDb.beginTx() )
+        {
+            tx.getNodeById( nodeId );
+        }
+        RetryingTransactionExecutor.TransactionTypeMetrics metrics = executor.metrics( "create" );
+        assertEquals( 3, attempts.get() );
+        assertEquals( 1, metrics.getCommits() );
+        assertEquals( 2, metrics.getRetries() );
+        assertEquals( 2, metrics.getDeadlocks() );
+        assertEquals( 0, metrics.getFailures() );
+    }
+
+    @Test
+    void shouldNotRetryNonTransientFailures()
+    {
+        RetryingTransactionExecutor executor = executor( 5, 100 );
+        AtomicInteger attempts = new AtomicInteger();
+        IllegalStateException failure = new IllegalStateException( "Not transient" );
+
+        try
+        {
+            executor.execute( "failing", tx ->
+            {
+                attempts.incrementAndGet();
+                throw failure;
+            } );
+            fail( "Expected the failure to be rethrown" );
+        }
+        catch ( IllegalStateException e )
+        {
+            assertSame( failure, e );
+        }
+
+        assertEquals( 1, attempts.get() );
+        assertEquals( 0, executor.metrics( "failing" ).getRetries() );
+        assertEquals( 1, executor.metrics( "failing" ).getFailures() );
+    }
+
+    @Test
+    void shouldGiveUpAfterMaxAttempts()
+    {
+        RetryingTransactionExecutor executor = executor( 3, 100 );
+        AtomicInteger attempts = new AtomicInteger();
+
+        try
+        {
+            executor.execute( "deadlocking", tx ->
+            {
+                attempts.incrementAndGet();
+                throw new DeadlockDetectedException( "Simulated deadlock" );
+            } );
+            fail( "Expected the deadlock to be rethrown" );
+        }
+        catch ( DeadlockDetectedException ignored )
+        {
+            // expected
+        }
+
+        assertEquals( 3, attempts.get() );
+        assertEquals( 2, executor.metrics( "deadlocking" ).getRetries() );
+        assertEquals( 3, executor.metrics( "deadlocking" ).getDeadlocks() );
+        assertEquals( 1, executor.metrics( "deadlocking" ).getFailures() );
+    }
+
+    @Test
+    void shouldStopRetryingWhenBudgetIsExhausted()
+    {
+        RetryingTransactionExecutor executor = executor( 10, 1 );
+        AtomicInteger attempts = new AtomicInteger();
+
+        try
+        {
+            executor.execute( "deadlocking", tx ->
+            {
+                attempts.incrementAndGet();
+                throw new DeadlockDetectedException( "Simulated deadlock" );
+            } );
+            fail( "Expected the deadlock to be rethrown" );
+        }
+        catch ( DeadlockDetectedException ignored )
+        {
+            // expected
+        }
+
+        assertEquals( 2, attempts.get() );
+        assertEquals( 1, executor.metrics( "deadlocking" ).getRetries() );
+    }
+
+    private RetryingTransactionExecutor executor( int maxAttempts, int retriesPerWindow )
+    {
+        return new RetryingTransactionExecutor( graphDb, maxAttempts, Duration.ofMillis( 1 ), Duration.ofMillis( 10 ), retriesPerWindow,
+                Duration.ofMinutes( 1 ) );
+    }
+}
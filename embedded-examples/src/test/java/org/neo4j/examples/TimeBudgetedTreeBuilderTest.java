@@ -0,0 +1,128 @@
+/*
+ * Licensed to Neo4j under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Neo4j licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.neo4j.examples;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CopyOnWriteArraySet;
+
+import org.neo4j.dbms.api.DatabaseManagementService;
+import org.neo4j.dbms.api.DatabaseManagementServiceBuilder;
+import org.neo4j.examples.TimeBudgetedTreeBuilder.BuildStatistics;
+import org.neo4j.graphdb.GraphDatabaseService;
+import org.neo4j.graphdb.Transaction;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.neo4j.configuration.GraphDatabaseSettings.DEFAULT_DATABASE_NAME;
+import static org.neo4j.internal.helpers.collection.Iterables.count;
+
+class TimeBudgetedTreeBuilderTest
+{
+    @TempDir
+    private File directory;
+    private DatabaseManagementService managementService;
+    private GraphDatabaseService graphDb;
+
+    @BeforeEach
+    void startDatabase()
+    {
+        managementService = new DatabaseManagementServiceBuilder( directory ).build();
+        graphDb = managementService.database( DEFAULT_DATABASE_NAME );
+    }
+
+    @AfterEach
+    void stopDatabase()
+    {
+        managementService.shutdown();
+    }
+
+    @Test
+    void shouldKeepEverythingBuiltWithinTheBudget()
+    {
+        BuildStatistics statistics;
+        try ( TimeBudgetedTreeBuilder builder = new TimeBudgetedTreeBuilder( graphDb, 100 ) )
+        {
+            statistics = builder.build( Duration.ofMillis( 500 ) );
+        }
+
+        assertTrue( statistics.getNodes() > 1 );
+        assertEquals( statistics.getNodes() - 1, statistics.getRelationships() );
+        try ( Transaction tx = graphDb.beginTx() )
+        {
+            assertEquals( statistics.getNodes(), count( tx.getAllNodes() ) );
+            assertEquals( statistics.getRelationships(), count( tx.getAllRelationships() ) );
+        }
+    }
+
+    @Test
+    void shouldReuseSchedulerAcrossBuilds()
+    {
+        try ( TimeBudgetedTreeBuilder builder = new TimeBudgetedTreeBuilder( graphDb, 100 ) )
+        {
+            List<BuildStatistics> firstReports = new CopyOnWriteArrayList<>();
+            List<BuildStatistics> secondReports = new CopyOnWriteArrayList<>();
+            Set<Thread> reporters = new CopyOnWriteArraySet<>();
+
+            BuildStatistics first = builder.build( Duration.ofMillis( 300 ), Duration.ofMillis( 50 ), progress ->
+            {
+                reporters.add( Thread.currentThread() );
+                firstReports.add( progress );
+            } );
+            BuildStatistics second = builder.build( Duration.ofMillis( 300 ), Duration.ofMillis( 50 ), progress ->
+            {
+                reporters.add( Thread.currentThread() );
+                secondReports.add( progress );
+            } );
+
+            assertProgress( firstReports, first );
+            assertProgress( secondReports, second );
+            assertEquals( "both builds should report from the same scheduler thread", 1, reporters.size() );
+            try ( Transaction tx = graphDb.beginTx() )
+            {
+                assertEquals( first.getNodes() + second.getNodes(), count( tx.getAllNodes() ) );
+            }
+        }
+    }
+
+    private static void assertProgress( List<BuildStatistics> reports, BuildStatistics result )
+    {
+        assertFalse( reports.isEmpty() );
+        BuildStatistics previous = null;
+        for ( BuildStatistics report : reports )
+        {
+            assertTrue( report.getNodes() <= result.getNodes() );
+            if ( previous != null )
+            {
+                assertTrue( report.getNodes() >= previous.getNodes() );
+                assertTrue( report.getElapsed().compareTo( previous.getElapsed() ) >= 0 );
+            }
+            previous = report;
+        }
+    }
+}
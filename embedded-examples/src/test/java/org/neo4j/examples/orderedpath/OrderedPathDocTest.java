@@ -77,6 +77,15 @@ public class OrderedPathDocTest
             assertEquals( 1, count( traversalDescription.traverse( tx.getNodeById( A.getId() ) ) ) );
             output = orderedPath.printPaths( tx, traversalDescription, A );
             assertTrue( output.contains( "(A)--[REL1]-->(B)--[REL2]-->(C)--[REL3]-->(D)" ) );
+            StringBuilder streamed = new StringBuilder();
+            orderedPath.printPaths( tx, traversalDescription, A, streamed );
+            assertEquals( output, streamed.append( "\n" ).toString() );
+        }
+        try ( Transaction tx = db.beginTx() )
+        {
+            TraversalDescription traversalDescription = orderedPath.findPathsByExpansion( tx );
+            assertEquals( 1, count( traversalDescription.traverse( tx.getNodeById( A.getId() ) ) ) );
+            assertEquals( output, orderedPath.printPaths( tx, traversalDescription, A ) );
         }
         String graph = AsciidocHelper.createGraphVizDeletingReferenceNode(
                 "Ordered Path Graph", orderedPath.db, "java" );
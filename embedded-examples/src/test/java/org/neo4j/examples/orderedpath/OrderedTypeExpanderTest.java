@@ -0,0 +1,108 @@
+/*
+ * Licensed to Neo4j under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Neo4j licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.neo4j.examples.orderedpath;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.neo4j.dbms.api.DatabaseManagementService;
+import org.neo4j.dbms.api.DatabaseManagementServiceBuilder;
+import org.neo4j.graphdb.GraphDatabaseService;
+import org.neo4j.graphdb.Node;
+import org.neo4j.graphdb.Path;
+import org.neo4j.graphdb.RelationshipType;
+import org.neo4j.graphdb.Transaction;
+import org.neo4j.graphdb.traversal.Paths;
+
+import static java.util.Collections.singletonList;
+import static org.junit.Assert.assertEquals;
+import static org.neo4j.configuration.GraphDatabaseSettings.DEFAULT_DATABASE_NAME;
+import static org.neo4j.graphdb.RelationshipType.withName;
+
+class OrderedTypeExpanderTest
+{
+    private static final RelationshipType REL1 = withName( "REL1" );
+    private static final RelationshipType REL2 = withName( "REL2" );
+
+    @TempDir
+    private File directory;
+    private DatabaseManagementService managementService;
+    private GraphDatabaseService db;
+
+    @BeforeEach
+    void startDatabase()
+    {
+        managementService = new DatabaseManagementServiceBuilder( directory ).build();
+        db = managementService.database( DEFAULT_DATABASE_NAME );
+    }
+
+    @AfterEach
+    void stopDatabase()
+    {
+        managementService.shutdown();
+    }
+
+    @Test
+    void shouldNotGoBackOverTheSameRelationshipWhenATypeRepeats()
+    {
+        long start;
+        try ( Transaction tx = db.beginTx() )
+        {
+            Node a = named( tx, "A" );
+            Node b = named( tx, "B" );
+            Node c = named( tx, "C" );
+            Node d = named( tx, "D" );
+            a.createRelationshipTo( b, REL1 );
+            b.createRelationshipTo( c, REL1 );
+            c.createRelationshipTo( d, REL2 );
+            start = a.getId();
+            tx.commit();
+        }
+
+        try ( Transaction tx = db.beginTx() )
+        {
+            assertEquals( singletonList( "(A)--[REL1]-->(B)--[REL1]-->(C)" ), paths( tx, start, REL1, REL1 ) );
+            assertEquals( singletonList( "(A)--[REL1]-->(B)--[REL1]-->(C)--[REL2]-->(D)" ), paths( tx, start, REL1, REL1, REL2 ) );
+        }
+    }
+
+    private static Node named( Transaction tx, String name )
+    {
+        Node node = tx.createNode();
+        node.setProperty( "name", name );
+        return node;
+    }
+
+    private static List<String> paths( Transaction tx, long start, RelationshipType... types )
+    {
+        Paths.PathDescriptor<Path> descriptor = new OrderedPath.PathPrinter( "name" );
+        List<String> paths = new ArrayList<>();
+        for ( Path path : OrderedTypeExpander.orderedPaths( tx, types ).traverse( tx.getNodeById( start ) ) )
+        {
+            paths.add( Paths.pathToString( path, descriptor ) );
+        }
+        return paths;
+    }
+}
@@ -0,0 +1,471 @@
+/*
+ * Copyright (c) "Neo4j"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j Enterprise Edition. The included source
+ * code can be redistributed and/or modified under the terms of the
+ * GNU AFFERO GENERAL PUBLIC LICENSE Version 3
+ * (http://www.fsf.org/licensing/licenses/agpl-3.0.html) with the
+ * Commons Clause, as found in the associated LICENSE.txt file.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * Neo4j object code can be licensed independently from the source
+ * under separate terms from the AGPL. Inquiries can be directed to:
+ * licensing@neo4j.com
+ *
+ * More information is also available at:
+ * https://neo4j.com/licensing/
+ */
+package org.neo4j.tooling;
+
+import org.apache.commons.io.FileUtils;
+import picocli.CommandLine;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.neo4j.cli.ExecutionContext;
+import org.neo4j.importer.ImportCommand;
+import org.neo4j.io.fs.DefaultFileSystemAbstraction;
+
+/**
+ * Imports large synthetic CSV sets, laid out like the header and part files of {@link ImportToolDocIT}, with
+ * different processor and memory settings, and reports how long each stage of the import took, its throughput
+ * and the peak memory used.
+ * <p>
+ * The import runs in this JVM. Stage times are taken from the progress output of the import tool, peak heap from
+ * the heap memory pools and peak resident memory, which includes the off-heap memory the importer mostly works in,
+ * from {@code /proc/self/status} where available.
+ * <p>
+ * Usage: {@code ImportBenchmark [key=value ...]} where the keys, with their defaults, are
+ * <ul>
+ * <li>{@code nodes=1000000} number of nodes</li>
+ * <li>{@code relationshipsPerNode=4} ratio of relationships to nodes, may be fractional</li>
+ * <li>{@code labels=Person:6,Movie:3,Person;Actor:1} labels, or {@code ;} separated label sets, with their weights</li>
+ * <li>{@code types=KNOWS:5,ACTED_IN:1} relationship types with their weights</li>
+ * <li>{@code properties=4} number of string properties per node, next to an id and an int property</li>
+ * <li>{@code width=16} characters per string property</li>
+ * <li>{@code relationshipProperties=1} number of string properties per relationship</li>
+ * <li>{@code parts=4} number of part files per header file</li>
+ * <li>{@code processors=1,2,4,<cores>} processor settings to run with</li>
+ * <li>{@code memory=256m,1g,90%} max memory settings to run with</li>
+ * <li>{@code directory=target/import-benchmark} where the CSV files and databases go</li>
+ * </ul>
+ */
+public class ImportBenchmark
+{
+    private static final Pattern STAGE_START = Pattern.compile( "^\\((\\d+)/(\\d+)\\) (.+?) \\d{4}-\\d{2}-\\d{2}" );
+    private static final Pattern IMPORT_DONE = Pattern.compile( "^IMPORT (DONE|FAILED)" );
+
+    public static void main( String[] args ) throws Exception
+    {
+        Map<String, String> options = options( args );
+        long nodes = Long.parseLong( options.getOrDefault( "nodes", "1000000" ) );
+        long relationships = (long) (nodes * Double.parseDouble( options.getOrDefault( "relationshipsPerNode", "4" ) ));
+        File directory = new File( options.getOrDefault( "directory", "target/import-benchmark" ) );
+
+        CsvSet csv = new CsvSet( new File( directory, "csv" ), Integer.parseInt( options.getOrDefault( "parts", "4" ) ) );
+        long start = System.nanoTime();
+        csv.writeNodes( nodes, Weighted.parse( options.getOrDefault( "labels", "Person:6,Movie:3,Person;Actor:1" ) ),
+                Integer.parseInt( options.getOrDefault( "properties", "4" ) ), Integer.parseInt( options.getOrDefault( "width", "16" ) ) );
+        csv.writeRelationships( relationships, nodes, Weighted.parse( options.getOrDefault( "types", "KNOWS:5,ACTED_IN:1" ) ),
+                Integer.parseInt( options.getOrDefault( "relationshipProperties", "1" ) ),
+                Integer.parseInt( options.getOrDefault( "width", "16" ) ) );
+        System.out.println( String.format( "Generated %d nodes and %d relationships, %.1f MB of CSV in %.1fs", nodes, relationships,
+                csv.bytes() / 1e6, (System.nanoTime() - start) / 1e9 ) );
+
+        for ( String processors : options.getOrDefault( "processors", "1,2,4," + Runtime.getRuntime().availableProcessors() ).split( "," ) )
+        {
+            for ( String memory : options.getOrDefault( "memory", "256m,1g,90%" ).split( "," ) )
+            {
+                Run run = new Run( new File( directory, "home" ), csv, processors.trim(), memory.trim() );
+                run.execute();
+                run.report( nodes, relationships );
+            }
+        }
+    }
+
+    private static Map<String, String> options( String[] args )
+    {
+        Map<String, String> options = new HashMap<>();
+        for ( String arg : args )
+        {
+            int split = arg.indexOf( '=' );
+            if ( split <= 0 )
+            {
+                throw new IllegalArgumentException( "Expected key=value but got '" + arg + "'" );
+            }
+            options.put( arg.substring( 0, split ), arg.substring( split + 1 ) );
+        }
+        return options;
+    }
+
+    /**
+     * One import with one combination of settings, into a fresh neo4j home.
+     */
+    private static class Run
+    {
+        private final File home;
+        private final CsvSet csv;
+        private final String processors;
+        private final String memory;
+        private final TimestampedLines output = new TimestampedLines();
+        private long startNanos;
+        private long endNanos;
+        private long peakHeap;
+        private long peakResident;
+
+        Run( File home, CsvSet csv, String processors, String memory )
+        {
+            this.home = home;
+            this.csv = csv;
+            this.processors = processors;
+            this.memory = memory;
+        }
+
+        void execute() throws IOException
+        {
+            FileUtils.deleteQuietly( home );
+            home.mkdirs();
+            System.gc();
+            List<MemoryPoolMXBean> heapPools = new ArrayList<>();
+            for ( MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans() )
+            {
+                if ( pool.getType() == MemoryType.HEAP )
+                {
+                    pool.resetPeakUsage();
+                    heapPools.add( pool );
+                }
+            }
+            resetPeakResident();
+
+            Path homePath = home.toPath().toAbsolutePath();
+            try ( PrintStream out = new PrintStream( output, true, StandardCharsets.UTF_8 );
+                  DefaultFileSystemAbstraction fs = new DefaultFileSystemAbstraction() )
+            {
+                ExecutionContext ctx = new ExecutionContext( homePath, homePath, out, out, fs );
+                ImportCommand importCommand = new ImportCommand( ctx );
+                CommandLine.populateCommand( importCommand, "--database", "benchmark",
+                        "--nodes", csv.nodeFiles(),
+                        "--relationships", csv.relationshipFiles(),
+                        "--processors", processors,
+                        "--max-memory", memory );
+                startNanos = System.nanoTime();
+                importCommand.execute();
+                endNanos = System.nanoTime();
+            }
+
+            for ( MemoryPoolMXBean pool : heapPools )
+            {
+                peakHeap += pool.getPeakUsage().getUsed();
+            }
+            peakResident = peakResident();
+            FileUtils.deleteQuietly( home );
+        }
+
+        void report( long nodes, long relationships )
+        {
+            double seconds = (endNanos - startNanos) / 1e9;
+            System.out.println( String.format( "processors=%s max-memory=%s: %.1fs, %.0f nodes/s, %.0f relationships/s, peak heap %.0f MB%s",
+                    processors, memory, seconds, nodes / seconds, relationships / seconds, peakHeap / 1e6,
+                    peakResident > 0 ? String.format( ", peak resident %.0f MB", peakResident / 1e6 ) : "" ) );
+
+            List<Long> times = output.times;
+            List<String> lines = output.lines;
+            for ( int i = 0; i < lines.size(); i++ )
+            {
+                Matcher stage = STAGE_START.matcher( lines.get( i ) );
+                if ( !stage.find() )
+                {
+                    continue;
+                }
+                long stageEnd = endNanos;
+                for ( int j = i + 1; j < lines.size(); j++ )
+                {
+                    if ( STAGE_START.matcher( lines.get( j ) ).find() || IMPORT_DONE.matcher( lines.get( j ) ).find() )
+                    {
+                        stageEnd = times.get( j );
+                        break;
+                    }
+                }
+                String name = stage.group( 3 );
+                double stageSeconds = (stageEnd - times.get( i )) / 1e9;
+                boolean nodeStage = name.startsWith( "Node" );
+                System.out.println( String.format( "  %-28s %8.1fs %14.0f %s/s", name, stageSeconds,
+                        (nodeStage ? nodes : relationships) / Math.max( stageSeconds, 1e-9 ), nodeStage ? "nodes" : "relationships" ) );
+            }
+        }
+
+        /*
+         * Writing 5 to clear_refs resets the peak resident set size of the process on Linux.
+         */
+        private static void resetPeakResident()
+        {
+            try
+            {
+                Files.writeString( Paths.get( "/proc/self/clear_refs" ), "5" );
+            }
+            catch ( IOException | RuntimeException ignored )
+            {
+                // Not Linux, or not allowed. The peak then covers the whole life of the process.
+            }
+        }
+
+        private static long peakResident()
+        {
+            try
+            {
+                for ( String line : Files.readAllLines( Paths.get( "/proc/self/status" ) ) )
+                {
+                    if ( line.startsWith( "VmHWM:" ) )
+                    {
+                        return Long.parseLong( line.replaceAll( "[^0-9]", "" ) ) * 1024;
+                    }
+                }
+            }
+            catch ( IOException | RuntimeException ignored )
+            {
+                // Not available on this platform
+            }
+            return -1;
+        }
+    }
+
+    /**
+     * Keeps each line written to it along with the time it was completed.
+     */
+    private static class TimestampedLines extends OutputStream
+    {
+        private final ByteArrayOutputStream line = new ByteArrayOutputStream();
+        final List<String> lines = new ArrayList<>();
+        final List<Long> times = new ArrayList<>();
+
+        @Override
+        public synchronized void write( int b )
+        {
+            if ( b == '\n' )
+            {
+                lines.add( line.toString( StandardCharsets.UTF_8 ) );
+                times.add( System.nanoTime() );
+                line.reset();
+            }
+            else
+            {
+                line.write( b );
+            }
+        }
+    }
+
+    /**
+     * A header file and a number of part files for nodes, and the same for relationships.
+     */
+    private static class CsvSet
+    {
+        private final File directory;
+        private final int parts;
+        private final SplittableRandom random = new SplittableRandom( 42 );
+        private final List<File> nodeFiles = new ArrayList<>();
+        private final List<File> relationshipFiles = new ArrayList<>();
+
+        CsvSet( File directory, int parts )
+        {
+            this.directory = directory;
+            this.parts = parts;
+            FileUtils.deleteQuietly( directory );
+            directory.mkdirs();
+        }
+
+        void writeNodes( long count, Weighted labels, int properties, int width ) throws IOException
+        {
+            StringBuilder header = new StringBuilder( "id:ID,number:int" );
+            for ( int i = 0; i < properties; i++ )
+            {
+                header.append( ",p" ).append( i );
+            }
+            header.append( ",:LABEL" );
+            nodeFiles.add( writeHeader( "nodes-header.csv", header ) );
+
+            char[] value = new char[width];
+            for ( int part = 0; part < parts; part++ )
+            {
+                File file = new File( directory, "nodes-part" + (part + 1) + ".csv" );
+                try ( Writer out = writer( file ) )
+                {
+                    for ( long id = count * part / parts; id < count * (part + 1) / parts; id++ )
+                    {
+                        out.write( Long.toString( id ) );
+                        out.write( ',' );
+                        out.write( Integer.toString( random.nextInt( 1_000_000 ) ) );
+                        for ( int i = 0; i < properties; i++ )
+                        {
+                            out.write( ',' );
+                            out.write( randomValue( value ) );
+                        }
+                        out.write( ',' );
+                        out.write( labels.next( random ) );
+                        out.write( '\n' );
+                    }
+                }
+                nodeFiles.add( file );
+            }
+        }
+
+        void writeRelationships( long count, long nodes, Weighted types, int properties, int width ) throws IOException
+        {
+            StringBuilder header = new StringBuilder( ":START_ID,:END_ID,:TYPE" );
+            for ( int i = 0; i < properties; i++ )
+            {
+                header.append( ",p" ).append( i );
+            }
+            relationshipFiles.add( writeHeader( "relationships-header.csv", header ) );
+
+            char[] value = new char[width];
+            for ( int part = 0; part < parts; part++ )
+            {
+                File file = new File( directory, "relationships-part" + (part + 1) + ".csv" );
+                try ( Writer out = writer( file ) )
+                {
+                    for ( long i = count * part / parts; i < count * (part + 1) / parts; i++ )
+                    {
+                        out.write( Long.toString( random.nextLong( nodes ) ) );
+                        out.write( ',' );
+                        out.write( Long.toString( random.nextLong( nodes ) ) );
+                        out.write( ',' );
+                        out.write( types.next( random ) );
+                        for ( int p = 0; p < properties; p++ )
+                        {
+                            out.write( ',' );
+                            out.write( randomValue( value ) );
+                        }
+                        out.write( '\n' );
+                    }
+                }
+                relationshipFiles.add( file );
+            }
+        }
+
+        String nodeFiles()
+        {
+            return joined( nodeFiles );
+        }
+
+        String relationshipFiles()
+        {
+            return joined( relationshipFiles );
+        }
+
+        long bytes()
+        {
+            long bytes = 0;
+            for ( File file : nodeFiles )
+            {
+                bytes += file.length();
+            }
+            for ( File file : relationshipFiles )
+            {
+                bytes += file.length();
+            }
+            return bytes;
+        }
+
+        private File writeHeader( String name, CharSequence header ) throws IOException
+        {
+            File file = new File( directory, name );
+            try ( Writer out = writer( file ) )
+            {
+                out.append( header ).append( '\n' );
+            }
+            return file;
+        }
+
+        private char[] randomValue( char[] value )
+        {
+            for ( int i = 0; i < value.length; i++ )
+            {
+                value[i] = (char) ('a' + random.nextInt( 26 ));
+            }
+            return value;
+        }
+
+        private static Writer writer( File file ) throws IOException
+        {
+            return Files.newBufferedWriter( file.toPath(), StandardCharsets.UTF_8 );
+        }
+
+        private static String joined( List<File> files )
+        {
+            StringBuilder joined = new StringBuilder();
+            for ( File file : files )
+            {
+                joined.append( joined.length() == 0 ? "" : "," ).append( file.getAbsolutePath() );
+            }
+            return joined.toString();
+        }
+    }
+
+    /**
+     * Values picked at random in proportion to their weights, from a spec like {@code Person:6,Movie:3}.
+     */
+    private static class Weighted
+    {
+        private final String[] values;
+        private final int[] cumulativeWeights;
+
+        private Weighted( String[] values, int[] cumulativeWeights )
+        {
+            this.values = values;
+            this.cumulativeWeights = cumulativeWeights;
+        }
+
+        static Weighted parse( String spec )
+        {
+            String[] entries = spec.split( "," );
+            String[] values = new String[entries.length];
+            int[] cumulative = new int[entries.length];
+            int total = 0;
+            for ( int i = 0; i < entries.length; i++ )
+            {
+                int split = entries[i].lastIndexOf( ':' );
+                values[i] = split < 0 ? entries[i] : entries[i].substring( 0, split );
+                total += split < 0 ? 1 : Integer.parseInt( entries[i].substring( split + 1 ) );
+                cumulative[i] = total;
+            }
+            return new Weighted( values, cumulative );
+        }
+
+        String next( SplittableRandom random )
+        {
+            int pick = random.nextInt( cumulativeWeights[cumulativeWeights.length - 1] );
+            for ( int i = 0; i < cumulativeWeights.length; i++ )
+            {
+                if ( pick < cumulativeWeights[i] )
+                {
+                    return values[i];
+                }
+            }
+            return values[values.length - 1];
+        }
+    }
+}
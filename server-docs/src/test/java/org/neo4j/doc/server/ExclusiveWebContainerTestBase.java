@@ -32,10 +32,10 @@ public class ExclusiveWebContainerTestBase
     public TestName name = new TestName();
 
     @BeforeClass
-    public static void ensureServerNotRunning()
+    public static void ensureServerNotAllocated()
     {
         System.setProperty( "org.neo4j.useInsecureCertificateGeneration", "true" );
-        WebContainerHolder.ensureNotRunning();
+        WebContainerHolder.ensureNotAllocated();
     }
 
     private static String txEndpoint( String database )
@@ -0,0 +1,84 @@
+/*
+ * Copyright (c) "Neo4j"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.doc.server;
+
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.neo4j.internal.helpers.collection.MapUtil.map;
+
+public class HTTPLoadDocIT extends SharedWebContainerTestBase
+{
+    @Test
+    public void shouldRecordEveryRequestOfAnExplicitTransactionPerEndpoint() throws Exception
+    {
+        HTTPLoad.Report report = HTTPLoad.with( HTTP.withBaseUri( container().getBaseUri() ) )
+                .workers( 4 )
+                .iterations( 25 )
+                .run( HTTPLoad.explicitTransaction( "CREATE (n:LoadTest)", "MATCH (n:LoadTest) RETURN count(n)" ) );
+
+        assertEquals( 100, report.endpoint( "begin" ).requests() );
+        assertEquals( 200, report.endpoint( "statement" ).requests() );
+        assertEquals( 100, report.endpoint( "commit" ).requests() );
+        for ( HTTPLoad.EndpointStats stats : report.endpoints().values() )
+        {
+            assertEquals( 0, stats.errors() );
+            assertThat( stats.percentile( 50 ), greaterThan( 0L ) );
+            assertThat( stats.percentile( 99 ), greaterThanOrEqualTo( stats.percentile( 50 ) ) );
+            assertThat( stats.percentile( 99.9 ), greaterThanOrEqualTo( stats.percentile( 99 ) ) );
+        }
+        assertThat( report.throughput( "commit" ), greaterThan( 0.0 ) );
+    }
+
+    @Test
+    public void shouldCountFailingStatementsAsErrors() throws Exception
+    {
+        HTTPLoad.Report report = HTTPLoad.with( HTTP.withBaseUri( container().getBaseUri() ) )
+                .workers( 2 )
+                .iterations( 5 )
+                .run( HTTPLoad.autoCommit( "RETURN 1 / $zero", map( "zero", 0 ) ) );
+
+        assertEquals( 10, report.endpoint( "commit" ).requests() );
+        assertEquals( 10, report.endpoint( "commit" ).errors() );
+    }
+
+    @Test
+    public void shouldGiveEachWorkerItsOwnSession() throws Exception
+    {
+        AtomicInteger runs = new AtomicInteger();
+        HTTPLoad.with( HTTP.withBaseUri( container().getBaseUri() ) )
+                .workers( 3 )
+                .iterations( 7 )
+                .run( session ->
+                {
+                    assertTrue( session.worker() >= 0 && session.worker() < 3 );
+                    assertTrue( session.iteration() < 7 );
+                    runs.incrementAndGet();
+                } );
+
+        assertEquals( 21, runs.get() );
+    }
+}
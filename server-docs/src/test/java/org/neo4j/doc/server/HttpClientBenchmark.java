@@ -0,0 +1,117 @@
+/*
+ * Copyright (c) "Neo4j"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.doc.server;
+
+import com.sun.jersey.api.client.Client;
+import com.sun.jersey.api.client.ClientResponse;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import javax.ws.rs.core.MediaType;
+
+import org.neo4j.doc.server.helpers.CommunityWebContainerBuilder;
+import org.neo4j.doc.server.helpers.TestWebContainer;
+import org.neo4j.io.fs.FileUtils;
+
+import static org.neo4j.doc.server.helpers.WebContainerHelper.createContainer;
+
+/**
+ * Compares requests per second against a local web container when every request creates its own client, as
+ * {@code RESTDocsGenerator} used to, with requests going through the shared {@link SharedHttpClient}.
+ * <p>
+ * Run with: HttpClientBenchmark [threads] [requests per measurement]. Set the {@value SharedHttpClient#MAX_CONNECTIONS_PROPERTY}
+ * system property to change the number of connections kept alive.
+ */
+public class HttpClientBenchmark
+{
+    private static final String PAYLOAD = "{\"statements\": [{\"statement\": \"RETURN 1\"}]}";
+
+    public static void main( String[] args ) throws Exception
+    {
+        int threads = args.length > 0 ? Integer.parseInt( args[0] ) : 8;
+        int requests = args.length > 1 ? Integer.parseInt( args[1] ) : 5_000;
+
+        Path directory = Files.createTempDirectory( "http-client-benchmark" );
+        TestWebContainer container = createContainer( CommunityWebContainerBuilder.serverOnRandomPorts(), directory.toFile(), true );
+        try
+        {
+            String uri = container.getBaseUri().resolve( "db/neo4j/tx/commit" ).toString();
+            for ( int round = 1; round <= 3; round++ )
+            {
+                System.out.println( "round " + round + ", idle connections per server " + SharedHttpClient.maxIdleConnectionsPerServer() );
+                run( "new client", uri, threads, requests, Client::create );
+                run( "shared", uri, threads, requests, SharedHttpClient::client );
+            }
+        }
+        finally
+        {
+            container.shutdown();
+            FileUtils.deleteDirectory( directory.toFile() );
+        }
+    }
+
+    private static void run( String name, String uri, int threads, int requests, Supplier<Client> clients ) throws Exception
+    {
+        ExecutorService executor = Executors.newFixedThreadPool( threads );
+        long start = System.nanoTime();
+        try
+        {
+            List<Future<?>> futures = new ArrayList<>();
+            for ( int t = 0; t < threads; t++ )
+            {
+                futures.add( executor.submit( () ->
+                {
+                    for ( int i = 0; i < requests / threads; i++ )
+                    {
+                        ClientResponse response = clients.get().resource( uri )
+                                .accept( MediaType.APPLICATION_JSON )
+                                .type( MediaType.APPLICATION_JSON )
+                                .post( ClientResponse.class, PAYLOAD );
+                        response.getEntity( String.class );
+                        if ( response.getStatus() != 200 )
+                        {
+                            throw new IllegalStateException( "Request failed with status " + response.getStatus() );
+                        }
+                    }
+                    return null;
+                } ) );
+            }
+            for ( Future<?> future : futures )
+            {
+                future.get();
+            }
+        }
+        finally
+        {
+            executor.shutdown();
+        }
+        long elapsed = System.nanoTime() - start;
+        int done = requests / threads * threads;
+        System.out.println( String.format( "%-10s %6d requests in %6d ms, %8.0f requests/s", name, done,
+                TimeUnit.NANOSECONDS.toMillis( elapsed ), done * 1e9 / elapsed ) );
+    }
+}
@@ -0,0 +1,63 @@
+/*
+ * Copyright (c) "Neo4j"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.doc.server;
+
+import org.junit.Test;
+
+import org.neo4j.configuration.GraphDatabaseSettings;
+import org.neo4j.doc.server.helpers.TestWebContainer;
+
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+public class WebContainerHolderDocIT extends ExclusiveWebContainerTestBase
+{
+    @Test
+    public void shouldKeepTheServerWarmBetweenAllocations() throws Exception
+    {
+        TestWebContainer first = WebContainerHolder.allocate( true );
+        WebContainerHolder.release( first );
+        WebContainerHolder.ensureNotAllocated();
+        TestWebContainer second = WebContainerHolder.allocate( true );
+        WebContainerHolder.release( second );
+
+        assertSame( first, second );
+    }
+
+    @Test
+    public void shouldRestartTheServerWhenItsConfigurationChanges() throws Exception
+    {
+        WebContainerHolder.setWebContainerBuilderProperty( GraphDatabaseSettings.transaction_timeout.name(), "300s" );
+        TestWebContainer first = WebContainerHolder.allocate( true );
+        WebContainerHolder.release( first );
+
+        WebContainerHolder.setWebContainerBuilderProperty( GraphDatabaseSettings.transaction_timeout.name(), "300s" );
+        TestWebContainer same = WebContainerHolder.allocate( true );
+        WebContainerHolder.release( same );
+
+        WebContainerHolder.setWebContainerBuilderProperty( GraphDatabaseSettings.transaction_timeout.name(), "301s" );
+        TestWebContainer restarted = WebContainerHolder.allocate( true );
+        WebContainerHolder.release( restarted );
+        WebContainerHolder.setWebContainerBuilderProperty( GraphDatabaseSettings.transaction_timeout.name(), "300s" );
+
+        assertSame( first, same );
+        assertNotSame( first, restarted );
+    }
+}
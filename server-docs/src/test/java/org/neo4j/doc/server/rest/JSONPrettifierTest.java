@@ -0,0 +1,85 @@
+/*
+ * Licensed to Neo4j under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Neo4j licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.neo4j.doc.server.rest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.Test;
+
+import java.io.StringReader;
+import java.io.StringWriter;
+
+import static org.hamcrest.CoreMatchers.containsString;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.Assert.assertEquals;
+
+public class JSONPrettifierTest
+{
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    @Test
+    public void shouldLayOutDocumentsLikeTheJacksonTreePrinter() throws Exception
+    {
+        String[] documents = {
+                "{\"results\":[{\"columns\":[\"n\"],\"data\":[{\"row\":[{\"name\":\"Alice\",\"age\":42,\"score\":1.5}],\"meta\":[null]}]}],\"errors\":[]}",
+                "[1,2.25,-3,true,false,null,\"a \\\"quoted\\\" \\u00e5 string\"]",
+                "{\"empty\":{},\"nested\":{\"list\":[[],[{}]]},\"big\":123456789012345678901234567890}",
+                "\"just a string\"",
+                "42"};
+        for ( String document : documents )
+        {
+            String expected = MAPPER.writerWithDefaultPrettyPrinter().writeValueAsString( MAPPER.readValue( document, Object.class ) );
+            assertEquals( expected, JSONPrettifier.parse( document ) );
+        }
+    }
+
+    @Test
+    public void shouldUseGsonLayoutForExceptions()
+    {
+        String json = "{\"message\":\"boom\",\"exception\":\"NotFoundException\",\"stackTrace\":[\"a\",\"b\"]}";
+
+        assertEquals( "{\n  \"message\": \"boom\",\n  \"exception\": \"NotFoundException\",\n  \"stackTrace\": [\n    \"a\",\n    \"b\"\n  ]\n}",
+                JSONPrettifier.parse( json ) );
+    }
+
+    @Test
+    public void shouldLeaveInvalidJsonAlone()
+    {
+        assertEquals( "{\"unclosed\":[1,2", JSONPrettifier.parse( "{\"unclosed\":[1,2" ) );
+        assertEquals( "not json", JSONPrettifier.parse( "not json" ) );
+        assertEquals( "", JSONPrettifier.parse( "" ) );
+        assertEquals( "", JSONPrettifier.parse( null ) );
+    }
+
+    @Test
+    public void shouldStreamLargeDocuments() throws Exception
+    {
+        StringBuilder json = new StringBuilder( "[" );
+        for ( int i = 0; i < 100_000; i++ )
+        {
+            json.append( i == 0 ? "" : "," ).append( "{\"id\":" ).append( i ).append( ",\"exception\":null}" );
+        }
+        json.append( "]" );
+
+        StringWriter out = new StringWriter();
+        JSONPrettifier.prettyPrint( new StringReader( json.toString() ), out );
+
+        assertThat( out.toString(), containsString( "\"id\" : 99999," ) );
+        assertEquals( MAPPER.readTree( json.toString() ), MAPPER.readTree( out.toString() ) );
+    }
+}
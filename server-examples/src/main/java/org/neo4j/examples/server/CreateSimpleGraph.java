@@ -30,6 +30,9 @@ public class CreateSimpleGraph
 {
     private static final String SERVER_ROOT_URI = "http://localhost:7474/db/neo4j/";
 
+    // One client for all requests, so that connections to the server are kept alive and reused
+    private static final Client CLIENT = Client.create();
+
     public static void main( String[] args ) throws URISyntaxException
     {
         checkDatabaseIsRunning();
@@ -60,7 +63,7 @@ public class CreateSimpleGraph
     private static void sendTransactionalCypherQuery(String query) {
         // tag::queryAllNodes[]
         final String txUri = SERVER_ROOT_URI + "transaction/commit";
-        WebResource resource = Client.create().resource( txUri );
+        WebResource resource = CLIENT.resource( txUri );
 
         String payload = "{\"statements\" : [ {\"statement\" : \"" +query + "\"} ]}";
         ClientResponse response = resource
@@ -94,8 +97,7 @@ public class CreateSimpleGraph
 
         // tag::traverse[]
         URI traverserUri = new URI( startNode.toString() + "/traverse/node" );
-        WebResource resource = Client.create()
-                .resource( traverserUri );
+        WebResource resource = CLIENT.resource( traverserUri );
         String jsonTraverserPayload = t.toJson();
         ClientResponse response = resource.accept( MediaType.APPLICATION_JSON )
                 .type( MediaType.APPLICATION_JSON )
@@ -117,8 +119,7 @@ public class CreateSimpleGraph
     {
         URI propertyUri = new URI( relationshipUri.toString() + "/properties" );
         String entity = toJsonNameValuePairCollection( name, value );
-        WebResource resource = Client.create()
-                .resource( propertyUri );
+        WebResource resource = CLIENT.resource( propertyUri );
         ClientResponse response = resource.accept( MediaType.APPLICATION_JSON )
                 .type( MediaType.APPLICATION_JSON )
                 .entity( entity )
@@ -144,8 +145,7 @@ public class CreateSimpleGraph
         final String nodeEntryPointUri = SERVER_ROOT_URI + "node";
         // http://localhost:7474/db/neo4j/node
 
-        WebResource resource = Client.create()
-                .resource( nodeEntryPointUri );
+        WebResource resource = CLIENT.resource( nodeEntryPointUri );
         // POST {} to the node entry point URI
         ClientResponse response = resource.accept( MediaType.APPLICATION_JSON )
                 .type( MediaType.APPLICATION_JSON )
@@ -171,8 +171,7 @@ public class CreateSimpleGraph
         String relationshipJson = generateJsonRelationship( endNode,
                 relationshipType, jsonAttributes );
 
-        WebResource resource = Client.create()
-                .resource( fromUri );
+        WebResource resource = CLIENT.resource( fromUri );
         // POST JSON to the relationships URI
         ClientResponse response = resource.accept( MediaType.APPLICATION_JSON )
                 .type( MediaType.APPLICATION_JSON )
@@ -227,8 +226,7 @@ public class CreateSimpleGraph
         String propertyUri = nodeUri.toString() + "/properties/" + propertyName;
         // http://localhost:7474/db/data/node/{node_id}/properties/{property_name}
 
-        WebResource resource = Client.create()
-                .resource( propertyUri );
+        WebResource resource = CLIENT.resource( propertyUri );
         ClientResponse response = resource.accept( MediaType.APPLICATION_JSON )
                 .type( MediaType.APPLICATION_JSON )
                 .entity( "\"" + propertyValue + "\"" )
@@ -243,8 +241,7 @@ public class CreateSimpleGraph
     private static void checkDatabaseIsRunning()
     {
         // tag::checkServer[]
-        WebResource resource = Client.create()
-                .resource( SERVER_ROOT_URI );
+        WebResource resource = CLIENT.resource( SERVER_ROOT_URI );
         ClientResponse response = resource.get( ClientResponse.class );
 
         System.out.println( String.format( "GET on [%s], status code [%d]",
@@ -0,0 +1,163 @@
+/*
+ * Licensed to Neo4j under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Neo4j licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.neo4j.examples.server.unmanaged;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.eclipse.collections.impl.set.mutable.primitive.LongHashSet;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import javax.ws.rs.Consumes;
+import javax.ws.rs.POST;
+import javax.ws.rs.Path;
+import javax.ws.rs.WebApplicationException;
+import javax.ws.rs.core.Context;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Response;
+import javax.ws.rs.core.StreamingOutput;
+
+import org.neo4j.dbms.api.DatabaseManagementService;
+import org.neo4j.graphdb.GraphDatabaseService;
+import org.neo4j.graphdb.Label;
+import org.neo4j.graphdb.Node;
+import org.neo4j.graphdb.Relationship;
+import org.neo4j.graphdb.RelationshipType;
+import org.neo4j.graphdb.ResourceIterator;
+import org.neo4j.graphdb.Transaction;
+
+import static org.neo4j.graphdb.Direction.INCOMING;
+import static org.neo4j.graphdb.Direction.OUTGOING;
+
+/**
+ * Looks up the colleagues of many persons in one request. The body is a JSON array of person names, the response
+ * is a JSON object with the distinct colleague names of each distinct person. The colleagues of a person are written and
+ * flushed as soon as they are found, so the response is streamed person by person rather than built up in memory.
+ */
+@Path("/colleagues-batch")
+public class ColleaguesBatchResource
+{
+    public static final int MAX_NAMES = 1000;
+
+    private static final RelationshipType ACTED_IN = RelationshipType.withName( "ACTED_IN" );
+    private static final Label PERSON = Label.label( "Person" );
+
+    private final DatabaseManagementService dbms;
+    private final ObjectMapper objectMapper;
+
+    public ColleaguesBatchResource( @Context DatabaseManagementService dbms )
+    {
+        this.dbms = dbms;
+        this.objectMapper = new ObjectMapper();
+    }
+
+    @POST
+    @Consumes(MediaType.APPLICATION_JSON)
+    public Response findColleagues( String body )
+    {
+        String[] requestedNames;
+        try
+        {
+            requestedNames = objectMapper.readValue( body, String[].class );
+        }
+        catch ( IOException e )
+        {
+            return badRequest( "Expected a JSON array of person names" );
+        }
+        if ( requestedNames == null || requestedNames.length > MAX_NAMES )
+        {
+            return badRequest( "Expected at most " + MAX_NAMES + " person names" );
+        }
+        // Validated before streaming starts, since a failure after the status has been sent can only truncate the response
+        final Set<String> personNames = new LinkedHashSet<>();
+        for ( String personName : requestedNames )
+        {
+            if ( personName == null )
+            {
+                return badRequest( "Person names must not be null" );
+            }
+            // Each name is a key in the response, so repeated names are only looked up once
+            personNames.add( personName );
+        }
+
+        StreamingOutput stream = new StreamingOutput()
+        {
+            @Override
+            public void write( OutputStream os ) throws IOException, WebApplicationException
+            {
+                JsonGenerator jg = objectMapper.getFactory().createGenerator( os, JsonEncoding.UTF8 );
+                jg.writeStartObject();
+
+                final GraphDatabaseService graphDb = dbms.database( "neo4j" );
+                try ( Transaction tx = graphDb.beginTx() )
+                {
+                    LongHashSet seen = new LongHashSet();
+                    for ( String personName : personNames )
+                    {
+                        jg.writeArrayFieldStart( personName );
+                        writeColleagues( tx, personName, seen, jg );
+                        jg.writeEndArray();
+                        jg.flush();
+                        seen.clear();
+                    }
+                    tx.commit();
+                }
+
+                jg.writeEndObject();
+                jg.flush();
+                jg.close();
+            }
+        };
+
+        return Response.ok().entity( stream ).type( MediaType.APPLICATION_JSON ).build();
+    }
+
+    private static void writeColleagues( Transaction tx, String personName, LongHashSet seen, JsonGenerator jg ) throws IOException
+    {
+        try ( ResourceIterator<Node> persons = tx.findNodes( PERSON, "name", personName ) )
+        {
+            while ( persons.hasNext() )
+            {
+                Node person = persons.next();
+                // A person is never their own colleague
+                seen.add( person.getId() );
+                for ( Relationship actedIn : person.getRelationships( OUTGOING, ACTED_IN ) )
+                {
+                    Node movie = actedIn.getEndNode();
+                    for ( Relationship colleagueActedIn : movie.getRelationships( INCOMING, ACTED_IN ) )
+                    {
+                        Node colleague = colleagueActedIn.getStartNode();
+                        if ( seen.add( colleague.getId() ) )
+                        {
+                            jg.writeString( colleague.getProperty( "name" ).toString() );
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    private static Response badRequest( String message )
+    {
+        return Response.status( Response.Status.BAD_REQUEST ).entity( message ).type( MediaType.TEXT_PLAIN ).build();
+    }
+}
@@ -0,0 +1,106 @@
+/*
+ * Licensed to Neo4j under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Neo4j licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.neo4j.examples.server.unmanaged;
+
+import org.junit.Rule;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import org.neo4j.doc.server.HTTP;
+import org.neo4j.harness.junit.rule.Neo4jRule;
+
+import static junit.framework.TestCase.assertEquals;
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.empty;
+
+public class ColleaguesBatchResourceDocIT
+{
+    @Rule
+    public Neo4jRule neo4j = new Neo4jRule()
+            .withFixture( "UNWIND ['Keanu Reeves','Hugo Weaving','Carrie-Anne Moss','Laurence Fishburne'] AS actor " +
+                    "MERGE (m:Movie  {name: 'The Matrix'}) " +
+                    "MERGE (p:Person {name: actor}) " +
+                    "MERGE (p)-[:ACTED_IN]->(m) " )
+            .withFixture( "UNWIND ['Keanu Reeves','Hugo Weaving','Monica Bellucci'] AS actor " +
+                    "MERGE (m:Movie  {name: 'The Matrix Reloaded'}) " +
+                    "MERGE (p:Person {name: actor}) " +
+                    "MERGE (p)-[:ACTED_IN]->(m) " )
+            .withUnmanagedExtension( "/path/to/my/extension", ColleaguesBatchResource.class );
+
+    @Test
+    public void shouldRetrieveDistinctColleaguesOfEveryPerson()
+    {
+        // When
+        HTTP.Response response = HTTP.POST( neo4j.httpURI().resolve( "/path/to/my/extension/colleagues-batch" ).toString(),
+                Arrays.asList( "Keanu Reeves", "Monica Bellucci", "Nobody" ) );
+
+        // Then
+        assertEquals( 200, response.status() );
+
+        Map<String, List<String>> content = response.content();
+        assertThat( content.size(), equalTo( 3 ) );
+        assertThat( content.get( "Keanu Reeves" ), containsInAnyOrder( "Hugo Weaving", "Carrie-Anne Moss", "Laurence Fishburne", "Monica Bellucci" ) );
+        assertThat( content.get( "Monica Bellucci" ), containsInAnyOrder( "Keanu Reeves", "Hugo Weaving" ) );
+        assertThat( content.get( "Nobody" ), empty() );
+    }
+
+    @Test
+    public void shouldRejectBodiesThatAreNotListsOfNames()
+    {
+        // When
+        HTTP.Response response = HTTP.POST( neo4j.httpURI().resolve( "/path/to/my/extension/colleagues-batch" ).toString(),
+                HTTP.RawPayload.rawPayload( "{\"name\": \"Keanu Reeves\"}" ) );
+
+        // Then
+        assertEquals( 400, response.status() );
+    }
+
+    @Test
+    public void shouldRejectNullNamesBeforeStreaming()
+    {
+        // When
+        HTTP.Response response = HTTP.POST( neo4j.httpURI().resolve( "/path/to/my/extension/colleagues-batch" ).toString(),
+                HTTP.RawPayload.rawPayload( "[\"Keanu Reeves\", null]" ) );
+
+        // Then
+        assertEquals( 400, response.status() );
+    }
+
+    @Test
+    public void shouldAnswerRepeatedNamesOnce()
+    {
+        // When
+        HTTP.Response response = HTTP.POST( neo4j.httpURI().resolve( "/path/to/my/extension/colleagues-batch" ).toString(),
+                HTTP.RawPayload.rawPayload( "[\"Monica Bellucci\", \"Monica Bellucci\"]" ) );
+
+        // Then
+        assertEquals( 200, response.status() );
+        String key = "\"Monica Bellucci\":";
+        String raw = response.rawContent();
+        assertEquals( raw.indexOf( key ), raw.lastIndexOf( key ) );
+        Map<String, List<String>> content = response.content();
+        assertThat( content.size(), equalTo( 1 ) );
+        assertThat( content.get( "Monica Bellucci" ), containsInAnyOrder( "Keanu Reeves", "Hugo Weaving" ) );
+    }
+}
@@ -0,0 +1,125 @@
+/*
+ * Licensed to Neo4j under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Neo4j licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.neo4j.examples.server.unmanaged;
+
+import java.net.URI;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.neo4j.doc.server.HTTP;
+import org.neo4j.harness.Neo4j;
+import org.neo4j.harness.Neo4jBuilders;
+
+/**
+ * Load test comparing colleague lookups one name per request through {@link ColleaguesResource} with batched
+ * lookups through {@link ColleaguesBatchResource}, on a generated graph of persons acting in movies.
+ * <p>
+ * Run with: ColleaguesResourceLoadBenchmark [persons] [movies per person] [threads] [batch size] [lookups]
+ */
+public class ColleaguesResourceLoadBenchmark
+{
+    public static void main( String[] args ) throws Exception
+    {
+        int persons = args.length > 0 ? Integer.parseInt( args[0] ) : 10_000;
+        int moviesPerPerson = args.length > 1 ? Integer.parseInt( args[1] ) : 5;
+        int threads = args.length > 2 ? Integer.parseInt( args[2] ) : 8;
+        int batchSize = args.length > 3 ? Integer.parseInt( args[3] ) : 100;
+        int lookups = args.length > 4 ? Integer.parseInt( args[4] ) : 5_000;
+        int movies = Math.max( 1, persons / 10 );
+
+        try ( Neo4j neo4j = Neo4jBuilders.newInProcessBuilder()
+                .withFixture( "CREATE INDEX FOR (p:Person) ON (p.name)" )
+                .withFixture( String.format(
+                        "UNWIND range(0, %d) AS i CREATE (:Movie {name: 'Movie ' + i})", movies - 1 ) )
+                .withFixture( String.format(
+                        "UNWIND range(0, %d) AS i CREATE (p:Person {name: 'Person ' + i}) WITH p, i " +
+                        "UNWIND range(1, %d) AS j MATCH (m:Movie {name: 'Movie ' + ((i * 31 + j * 17) %% %d)}) " +
+                        "MERGE (p)-[:ACTED_IN]->(m)", persons - 1, moviesPerPerson, movies ) )
+                .withUnmanagedExtension( "/single", ColleaguesResource.class )
+                .withUnmanagedExtension( "/batch", ColleaguesBatchResource.class )
+                .build() )
+        {
+            URI base = neo4j.httpURI();
+            for ( int round = 1; round <= 3; round++ )
+            {
+                System.out.println( "round " + round );
+                run( "single", threads, lookups, 1, names -> HTTP.GET( base.resolve(
+                        "/single/colleagues/" + URLEncoder.encode( names.get( 0 ), StandardCharsets.UTF_8 ).replace( "+", "%20" ) ).toString() ) );
+                run( "batch", threads, lookups, batchSize, names -> HTTP.POST( base.resolve( "/batch/colleagues-batch" ).toString(), names ) );
+            }
+        }
+    }
+
+    private static void run( String name, int threads, int lookups, int batchSize, Lookup lookup ) throws Exception
+    {
+        ExecutorService executor = Executors.newFixedThreadPool( threads );
+        AtomicInteger next = new AtomicInteger();
+        AtomicInteger requests = new AtomicInteger();
+        long start = System.nanoTime();
+        try
+        {
+            List<Future<?>> futures = new ArrayList<>();
+            for ( int t = 0; t < threads; t++ )
+            {
+                futures.add( executor.submit( () ->
+                {
+                    int from;
+                    while ( (from = next.getAndAdd( batchSize )) < lookups )
+                    {
+                        List<String> names = new ArrayList<>( batchSize );
+                        for ( int i = from; i < Math.min( from + batchSize, lookups ); i++ )
+                        {
+                            names.add( "Person " + (i * 7919 % lookups) );
+                        }
+                        HTTP.Response response = lookup.lookup( names );
+                        if ( response.status() != 200 )
+                        {
+                            throw new IllegalStateException( "Lookup failed: " + response );
+                        }
+                        requests.incrementAndGet();
+                    }
+                    return null;
+                } ) );
+            }
+            for ( Future<?> future : futures )
+            {
+                future.get();
+            }
+        }
+        finally
+        {
+            executor.shutdown();
+        }
+        long elapsed = System.nanoTime() - start;
+        System.out.println( String.format( "%-6s %6d requests, %6d ms, %8.0f names/s, %8.2f ms/request", name, requests.get(),
+                TimeUnit.NANOSECONDS.toMillis( elapsed ), lookups * 1e9 / elapsed, elapsed / 1e6 * threads / requests.get() ) );
+    }
+
+    private interface Lookup
+    {
+        HTTP.Response lookup( List<String> names );
+    }
+}
@@ -22,8 +22,6 @@ import com.fasterxml.jackson.databind.JsonNode;
 import com.sun.jersey.api.client.Client;
 import com.sun.jersey.api.client.ClientRequest;
 import com.sun.jersey.api.client.ClientResponse;
-import com.sun.jersey.api.client.config.ClientConfig;
-import com.sun.jersey.api.client.config.DefaultClientConfig;
 
 import java.net.URI;
 import java.util.Base64;
@@ -53,12 +51,7 @@ public class HTTP
 {
 
     private static final Builder BUILDER = new Builder().withHeaders( "Accept", "application/json" );
-    private static final Client CLIENT;
-    static {
-        DefaultClientConfig defaultClientConfig = new DefaultClientConfig();
-        defaultClientConfig.getProperties().put( ClientConfig.PROPERTY_FOLLOW_REDIRECTS, Boolean.FALSE );
-        CLIENT = Client.create( defaultClientConfig );
-    }
+    private static final Client CLIENT = SharedHttpClient.nonRedirectingClient();
 
     private HTTP()
     {
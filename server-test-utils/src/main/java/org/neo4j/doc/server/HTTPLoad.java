@@ -0,0 +1,383 @@
+/*
+ * Licensed to Neo4j under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Neo4j licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.neo4j.doc.server;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+import static java.util.Collections.singletonList;
+import static java.util.Collections.singletonMap;
+import static org.neo4j.internal.helpers.collection.MapUtil.map;
+
+/**
+ * Generates concurrent load against a web container with {@link HTTP.Builder}.
+ * <p>
+ * A number of workers each run a {@link Script} over and over, for a number of iterations or until a duration
+ * has passed. Every request a script makes through its {@link Session} is timed and recorded under the endpoint
+ * name the script gives it, so that requests to URIs containing transaction ids are still counted together.
+ * <pre>
+ * HTTPLoad.Report report = HTTPLoad.with( HTTP.withBaseUri( container.getBaseUri() ) )
+ *         .workers( 16 )
+ *         .duration( Duration.ofSeconds( 30 ) )
+ *         .run( HTTPLoad.explicitTransaction( "CREATE (n:Person)", "MATCH (n:Person) RETURN count(n)" ) );
+ * </pre>
+ */
+public final class HTTPLoad
+{
+    public static final String TX_ENDPOINT = "db/neo4j/tx";
+
+    private final HTTP.Builder http;
+    private final int workers;
+    private final long iterations;
+    private final Duration duration;
+    private final Duration warmup;
+
+    private HTTPLoad( HTTP.Builder http, int workers, long iterations, Duration duration, Duration warmup )
+    {
+        this.http = http;
+        this.workers = workers;
+        this.iterations = iterations;
+        this.duration = duration;
+        this.warmup = warmup;
+    }
+
+    public static HTTPLoad with( HTTP.Builder http )
+    {
+        return new HTTPLoad( http, Runtime.getRuntime().availableProcessors(), Long.MAX_VALUE, Duration.ofSeconds( 10 ), Duration.ZERO );
+    }
+
+    public HTTPLoad workers( int workers )
+    {
+        return new HTTPLoad( http, workers, iterations, duration, warmup );
+    }
+
+    /**
+     * Each worker stops after running the script this many times, unless the duration ran out before.
+     */
+    public HTTPLoad iterations( long iterations )
+    {
+        return new HTTPLoad( http, workers, iterations, duration, warmup );
+    }
+
+    public HTTPLoad duration( Duration duration )
+    {
+        return new HTTPLoad( http, workers, iterations, duration, warmup );
+    }
+
+    /**
+     * Requests made during the warmup are not recorded.
+     */
+    public HTTPLoad warmup( Duration warmup )
+    {
+        return new HTTPLoad( http, workers, iterations, duration, warmup );
+    }
+
+    /**
+     * Runs the script on all workers and waits for them to finish.
+     *
+     * @throws IllegalStateException if a script failed with an exception, which stops all workers.
+     */
+    public Report run( Script script ) throws InterruptedException
+    {
+        Map<String, EndpointStats> endpoints = new ConcurrentHashMap<>();
+        long start = System.nanoTime();
+        long recordFrom = start + warmup.toNanos();
+        long deadline = recordFrom + duration.toNanos();
+
+        ExecutorService executor = Executors.newFixedThreadPool( workers );
+        try
+        {
+            List<Future<?>> futures = new ArrayList<>();
+            for ( int worker = 0; worker < workers; worker++ )
+            {
+                Session session = new Session( http, worker, endpoints, recordFrom );
+                futures.add( executor.submit( () ->
+                {
+                    for ( long iteration = 0; iteration < iterations && System.nanoTime() < deadline; iteration++ )
+                    {
+                        session.iteration = iteration;
+                        script.run( session );
+                    }
+                    return null;
+                } ) );
+            }
+            for ( Future<?> future : futures )
+            {
+                try
+                {
+                    future.get();
+                }
+                catch ( ExecutionException e )
+                {
+                    executor.shutdownNow();
+                    throw new IllegalStateException( "Load script failed", e.getCause() );
+                }
+            }
+        }
+        finally
+        {
+            executor.shutdown();
+        }
+        long elapsed = Math.max( 0, System.nanoTime() - recordFrom );
+        return new Report( new TreeMap<>( endpoints ), Duration.ofNanos( elapsed ) );
+    }
+
+    /**
+     * A script that runs the statement in a transaction of its own, committed in the same request.
+     */
+    public static Script autoCommit( String statement, Map<String, Object> parameters )
+    {
+        Object payload = statements( statement, parameters );
+        return session -> session.request( "commit", "POST", TX_ENDPOINT + "/commit", payload );
+    }
+
+    /**
+     * A script that opens a transaction, runs each statement in a request of its own and then commits.
+     */
+    public static Script explicitTransaction( String... statements )
+    {
+        List<Object> payloads = new ArrayList<>();
+        for ( String statement : statements )
+        {
+            payloads.add( statements( statement, Collections.emptyMap() ) );
+        }
+        return session ->
+        {
+            HTTP.Response begin = session.request( "begin", "POST", TX_ENDPOINT, statements() );
+            String transaction = begin.location();
+            for ( Object payload : payloads )
+            {
+                session.request( "statement", "POST", transaction, payload );
+            }
+            session.request( "commit", "POST", transaction + "/commit", statements() );
+        };
+    }
+
+    private static Map<String, Object> statements( String statement, Map<String, Object> parameters )
+    {
+        return singletonMap( "statements", singletonList( map( "statement", statement, "parameters", parameters ) ) );
+    }
+
+    private static Map<String, Object> statements()
+    {
+        return singletonMap( "statements", Collections.emptyList() );
+    }
+
+    public interface Script
+    {
+        void run( Session session ) throws Exception;
+    }
+
+    /**
+     * What a script uses to make its requests. Each worker has its own.
+     */
+    public static final class Session
+    {
+        private final HTTP.Builder http;
+        private final int worker;
+        private final Map<String, EndpointStats> endpoints;
+        private final long recordFrom;
+        private long iteration;
+
+        private Session( HTTP.Builder http, int worker, Map<String, EndpointStats> endpoints, long recordFrom )
+        {
+            this.http = http;
+            this.worker = worker;
+            this.endpoints = endpoints;
+            this.recordFrom = recordFrom;
+        }
+
+        public int worker()
+        {
+            return worker;
+        }
+
+        public long iteration()
+        {
+            return iteration;
+        }
+
+        /**
+         * Makes a request and records its latency under the given endpoint. Responses with a status of 400 or
+         * above, or carrying transactional errors, are counted as errors.
+         */
+        public HTTP.Response request( String endpoint, String method, String uri, Object payload )
+        {
+            long start = System.nanoTime();
+            HTTP.Response response = http.request( method, uri, payload );
+            long end = System.nanoTime();
+            if ( start >= recordFrom )
+            {
+                endpoints.computeIfAbsent( endpoint, name -> new EndpointStats() ).record( end - start, isError( response ) );
+            }
+            return response;
+        }
+
+        private static boolean isError( HTTP.Response response )
+        {
+            return response.status() >= 400 || response.rawContent().contains( "\"errors\":[{" );
+        }
+    }
+
+    public static final class Report
+    {
+        private final Map<String, EndpointStats> endpoints;
+        private final Duration elapsed;
+
+        private Report( Map<String, EndpointStats> endpoints, Duration elapsed )
+        {
+            this.endpoints = endpoints;
+            this.elapsed = elapsed;
+        }
+
+        public Map<String, EndpointStats> endpoints()
+        {
+            return Collections.unmodifiableMap( endpoints );
+        }
+
+        public EndpointStats endpoint( String name )
+        {
+            return endpoints.get( name );
+        }
+
+        public Duration elapsed()
+        {
+            return elapsed;
+        }
+
+        /**
+         * @return the recorded requests per second of the given endpoint.
+         */
+        public double throughput( String name )
+        {
+            EndpointStats stats = endpoints.get( name );
+            return stats == null ? 0 : stats.requests() * 1e9 / Math.max( 1, elapsed.toNanos() );
+        }
+
+        @Override
+        public String toString()
+        {
+            StringBuilder sb = new StringBuilder( String.format( "%-12s %10s %8s %10s %10s %10s %10s%n",
+                    "endpoint", "requests", "errors", "req/s", "p50 ms", "p99 ms", "p999 ms" ) );
+            for ( Map.Entry<String, EndpointStats> entry : endpoints.entrySet() )
+            {
+                EndpointStats stats = entry.getValue();
+                sb.append( String.format( "%-12s %10d %8d %10.0f %10.2f %10.2f %10.2f%n", entry.getKey(), stats.requests(), stats.errors(),
+                        throughput( entry.getKey() ), stats.percentile( 50 ) / 1e6, stats.percentile( 99 ) / 1e6, stats.percentile( 99.9 ) / 1e6 ) );
+            }
+            return sb.toString();
+        }
+    }
+
+    /**
+     * Request counts and a latency histogram for one endpoint.
+     * <p>
+     * Latencies are kept in buckets of 16 per power of two nanoseconds, so percentiles are exact to within about 6%.
+     */
+    public static final class EndpointStats
+    {
+        private static final int SUB_BUCKETS = 16;
+        private static final int SUB_BUCKET_BITS = 4;
+
+        private final AtomicLongArray buckets = new AtomicLongArray( 64 * SUB_BUCKETS );
+        private final LongAdder requests = new LongAdder();
+        private final LongAdder errors = new LongAdder();
+
+        void record( long nanos, boolean error )
+        {
+            buckets.incrementAndGet( bucket( Math.max( 0, nanos ) ) );
+            requests.increment();
+            if ( error )
+            {
+                errors.increment();
+            }
+        }
+
+        public long requests()
+        {
+            return requests.sum();
+        }
+
+        public long errors()
+        {
+            return errors.sum();
+        }
+
+        /**
+         * @param percentile between 0 and 100.
+         * @return the latency in nanoseconds that the given percentage of requests did not exceed, or 0 if there were none.
+         */
+        public long percentile( double percentile )
+        {
+            long total = 0;
+            for ( int i = 0; i < buckets.length(); i++ )
+            {
+                total += buckets.get( i );
+            }
+            if ( total == 0 )
+            {
+                return 0;
+            }
+            long rank = (long) Math.ceil( percentile / 100 * total );
+            long seen = 0;
+            for ( int i = 0; i < buckets.length(); i++ )
+            {
+                seen += buckets.get( i );
+                if ( seen >= Math.max( 1, rank ) )
+                {
+                    return upperBound( i );
+                }
+            }
+            return upperBound( buckets.length() - 1 );
+        }
+
+        static int bucket( long nanos )
+        {
+            if ( nanos < SUB_BUCKETS )
+            {
+                return (int) nanos;
+            }
+            int magnitude = 63 - Long.numberOfLeadingZeros( nanos );
+            int subBucket = (int) (nanos >>> (magnitude - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+            return (magnitude - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + subBucket;
+        }
+
+        static long upperBound( int bucket )
+        {
+            if ( bucket < SUB_BUCKETS )
+            {
+                return bucket;
+            }
+            int magnitude = bucket / SUB_BUCKETS + SUB_BUCKET_BITS - 1;
+            long subBucket = bucket % SUB_BUCKETS;
+            return ((SUB_BUCKETS + subBucket + 1) << (magnitude - SUB_BUCKET_BITS)) - 1;
+        }
+    }
+}
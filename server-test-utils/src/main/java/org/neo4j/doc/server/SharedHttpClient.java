@@ -0,0 +1,82 @@
+/*
+ * Licensed to Neo4j under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Neo4j licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.neo4j.doc.server;
+
+import com.sun.jersey.api.client.Client;
+import com.sun.jersey.api.client.config.ClientConfig;
+import com.sun.jersey.api.client.config.DefaultClientConfig;
+
+/**
+ * The Jersey clients shared by the documentation tests and their helpers.
+ * <p>
+ * This class does no pooling of its own. It only creates two clients once, instead of one per request, so client
+ * initialization is paid once. Connection reuse comes from the keep-alive cache of {@link java.net.HttpURLConnection},
+ * which the default Jersey connector goes through. That cache belongs to the JDK, is shared by the whole JVM and is
+ * not configured here. It keeps as many idle connections per server as the {@value #MAX_CONNECTIONS_PROPERTY} system
+ * property says, {@value #DEFAULT_MAX_CONNECTIONS} by default. The server-docs build sets that property for its
+ * integration tests.
+ * <p>
+ * Connections are only returned to the cache once the response has been read to the end or closed.
+ */
+public final class SharedHttpClient
+{
+    public static final String MAX_CONNECTIONS_PROPERTY = "http.maxConnections";
+    public static final int DEFAULT_MAX_CONNECTIONS = 5;
+
+    private static final Client CLIENT;
+    private static final Client NON_REDIRECTING_CLIENT;
+
+    static
+    {
+        CLIENT = Client.create();
+
+        DefaultClientConfig nonRedirectingConfig = new DefaultClientConfig();
+        nonRedirectingConfig.getProperties().put( ClientConfig.PROPERTY_FOLLOW_REDIRECTS, Boolean.FALSE );
+        NON_REDIRECTING_CLIENT = Client.create( nonRedirectingConfig );
+    }
+
+    private SharedHttpClient()
+    {
+    }
+
+    /**
+     * @return the shared client, which follows redirects.
+     */
+    public static Client client()
+    {
+        return CLIENT;
+    }
+
+    /**
+     * @return the shared client that returns redirects as they are, for tests asserting on them.
+     */
+    public static Client nonRedirectingClient()
+    {
+        return NON_REDIRECTING_CLIENT;
+    }
+
+    /**
+     * @return the number of idle connections that the JDK keeps alive per server for every client in the JVM, as set by
+     * the {@value #MAX_CONNECTIONS_PROPERTY} system property.
+     */
+    public static int maxIdleConnectionsPerServer()
+    {
+        return Integer.getInteger( MAX_CONNECTIONS_PROPERTY, DEFAULT_MAX_CONNECTIONS );
+    }
+}
@@ -21,17 +21,26 @@ package org.neo4j.doc.server;
 import org.apache.commons.lang3.SystemUtils;
 
 import java.io.File;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
 
 import org.neo4j.doc.server.helpers.CommunityWebContainerBuilder;
 import org.neo4j.doc.server.helpers.TestWebContainer;
 
 import static org.neo4j.doc.server.helpers.WebContainerHelper.createContainer;
 
+/**
+ * Keeps one warm web container for all {@link SharedWebContainerTestBase} classes in the JVM. The container is
+ * only restarted when a test class asks for a property it was not started with, and is shut down when the JVM exits.
+ */
 public final class WebContainerHolder extends Thread
 {
     private static AssertionError allocation;
     private static TestWebContainer testWebContainer;
     private static CommunityWebContainerBuilder builder;
+    private static final Map<String, String> PROPERTIES = new HashMap<>();
+    private static boolean shutdownHookAdded;
 
     static synchronized TestWebContainer allocate( boolean onRandomPorts ) throws Exception
     {
@@ -64,24 +73,51 @@ public final class WebContainerHolder extends Thread
         allocation = null;
     }
 
-    static synchronized void ensureNotRunning()
+    /**
+     * The shared container listens on random ports, so it can keep running next to containers started by other tests.
+     */
+    static synchronized void ensureNotAllocated()
     {
         if ( allocation != null )
         {
             throw allocation;
         }
-        shutdown();
     }
 
     static synchronized void setWebContainerBuilderProperty( String key, String value )
+    {
+        if ( Objects.equals( PROPERTIES.get( key ), value ) )
+        {
+            return;
+        }
+        if ( testWebContainer != null )
+        {
+            if ( allocation != null )
+            {
+                throw new AssertionError( "Cannot change " + key + " while the server is allocated", allocation );
+            }
+            Map<String, String> previous = new HashMap<>( PROPERTIES );
+            shutdown();
+            previous.forEach( WebContainerHolder::withProperty );
+        }
+        withProperty( key, value );
+    }
+
+    private static void withProperty( String key, String value )
     {
         initBuilder();
         builder = builder.withProperty( key, value );
+        PROPERTIES.put( key, value );
     }
 
     private static TestWebContainer startServer( File path, boolean onRandomPorts ) throws Exception
     {
         initBuilder();
+        if ( !shutdownHookAdded )
+        {
+            Runtime.getRuntime().addShutdownHook( new WebContainerHolder() );
+            shutdownHookAdded = true;
+        }
         return createContainer( builder, path, onRandomPorts );
     }
 
@@ -98,6 +134,7 @@ public final class WebContainerHolder extends Thread
         finally
         {
             builder = null;
+            PROPERTIES.clear();
             testWebContainer = null;
         }
     }
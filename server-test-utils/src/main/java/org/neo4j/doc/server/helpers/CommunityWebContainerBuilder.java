@@ -58,6 +58,8 @@ import static org.neo4j.util.Preconditions.checkState;
 public class CommunityWebContainerBuilder
 {
     private static final SocketAddress ANY_ADDRESS = new SocketAddress( "localhost", 0 );
+    // The self-signed certificate does not depend on the build, so it is made once per JVM and shared by every build.
+    private static File sharedCertificates;
 
     private final LogProvider logProvider;
     private SocketAddress address = new SocketAddress( "localhost", HttpConnector.DEFAULT_PORT );
@@ -137,7 +139,22 @@ public class CommunityWebContainerBuilder
         return temporaryConfigFile;
     }
 
-    public Map<String, String> createConfiguration( File temporaryFolder )
+    /*
+     * Generating a key pair is by far the slowest part of setting up HTTPS, and the certificate is only ever used
+     * for localhost, so all containers share one.
+     */
+    private static synchronized File certificates() throws IOException
+    {
+        if ( sharedCertificates == null || !sharedCertificates.exists() )
+        {
+            File directory = new File( WebContainerTestUtils.createTempDir(), "certificates" );
+            SelfSignedCertificateFactory.create( directory );
+            sharedCertificates = directory;
+        }
+        return sharedCertificates;
+    }
+
+    public Map<String, String> createConfiguration( File temporaryFolder ) throws IOException
     {
         Map<String, String> properties = stringMap(
                 ServerSettings.db_api_path.name(), dbUri,
@@ -175,8 +192,7 @@ public class CommunityWebContainerBuilder
 
         if ( httpsEnabled )
         {
-            var certificates = new File( temporaryFolder, "certificates" );
-            SelfSignedCertificateFactory.create( certificates );
+            var certificates = certificates();
             SslPolicyConfig policy = SslPolicyConfig.forScope( SslPolicyScope.HTTPS );
             properties.put( policy.enabled.name(), Boolean.TRUE.toString() );
             properties.put( policy.base_directory.name(), certificates.getAbsolutePath() );
@@ -22,6 +22,7 @@ import com.sun.jersey.api.client.Client;
 
 import java.net.URI;
 
+import org.neo4j.doc.server.SharedHttpClient;
 import org.neo4j.doc.server.rest.JaxRsResponse;
 import org.neo4j.doc.server.rest.RestRequest;
 
@@ -29,7 +30,7 @@ public final class FunctionalTestHelper
 {
     private final TestWebContainer container;
 
-    public static final Client CLIENT = Client.create();
+    public static final Client CLIENT = SharedHttpClient.client();
     private RestRequest request;
 
     public FunctionalTestHelper( TestWebContainer container )
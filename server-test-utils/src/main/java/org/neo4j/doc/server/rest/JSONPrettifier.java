@@ -18,23 +18,31 @@
  */
 package org.neo4j.doc.server.rest;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.util.DefaultPrettyPrinter;
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
 import com.google.gson.JsonElement;
-import com.google.gson.JsonParser;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringWriter;
+import java.io.Writer;
 
 /*
- * Naive implementation of a JSON prettifier.
+ * JSON prettifier that copies tokens straight from a parser to an indenting generator,
+ * without building a tree of the document in between.
  */
 public class JSONPrettifier
 {
+    private static final String EXCEPTION = "exception";
     private static final Gson GSON = new GsonBuilder().setPrettyPrinting()
             .create();
-    private static final JsonParser JSON_PARSER = new JsonParser();
-    private static final ObjectMapper MAPPER = new ObjectMapper();
-    private static final ObjectWriter WRITER = MAPPER.writerWithDefaultPrettyPrinter();
+    private static final com.google.gson.JsonParser GSON_PARSER = new com.google.gson.JsonParser();
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
 
     public static String parse( final String json )
     {
@@ -47,14 +55,15 @@ public class JSONPrettifier
 
         try
         {
-            if ( json.contains( "\"exception\"" ) )
+            StringWriter out = new StringWriter( json.length() + (json.length() >> 1) );
+            if ( prettyPrint( JSON_FACTORY.createParser( json ), out, true ) )
             {
-                // the gson renderer is much better for stacktraces
-                result = gsonPrettyPrint( json );
+                result = out.toString();
             }
             else
             {
-                result = jacksonPrettyPrint( json );
+                // the gson renderer is much better for stacktraces
+                result = gsonPrettyPrint( json );
             }
         }
         catch ( Exception e )
@@ -72,16 +81,72 @@ public class JSONPrettifier
         return result;
     }
 
-    private static String gsonPrettyPrint( final String json ) throws Exception
+    /**
+     * Pretty prints the first JSON value read from {@code in} to {@code out}, holding no more than the current token in memory.
+     * Unlike {@link #parse(String)} this always uses the Jackson layout, since it cannot go back and start over with gson once
+     * an exception shows up.
+     *
+     * Neither stream is closed.
+     *
+     * @throws IOException if reading or writing fails, or the input is not valid JSON. Whatever was written until then stays written.
+     */
+    public static void prettyPrint( Reader in, Writer out ) throws IOException
     {
-        JsonElement element = JSON_PARSER.parse( json );
-        return GSON.toJson( element );
+        prettyPrint( JSON_FACTORY.createParser( in ), out, false );
     }
 
-    private static String jacksonPrettyPrint( final String json )
-            throws Exception
+    /**
+     * @return {@code false} if {@code stopAtException} is set and the document turned out to contain an exception,
+     * in which case the output is incomplete.
+     */
+    private static boolean prettyPrint( JsonParser parser, Writer out, boolean stopAtException ) throws IOException
     {
-        Object myObject = MAPPER.readValue( json, Object.class );
-        return WRITER.writeValueAsString( myObject );
+        try ( JsonParser in = parser;
+              JsonGenerator generator = JSON_FACTORY.createGenerator( out ) )
+        {
+            in.disable( JsonParser.Feature.AUTO_CLOSE_SOURCE );
+            generator.disable( JsonGenerator.Feature.AUTO_CLOSE_TARGET );
+            generator.disable( JsonGenerator.Feature.AUTO_CLOSE_JSON_CONTENT );
+            // Same layout as ObjectMapper.writerWithDefaultPrettyPrinter()
+            generator.setPrettyPrinter( new DefaultPrettyPrinter() );
+            JsonToken token = in.nextToken();
+            if ( token == null )
+            {
+                throw new IOException( "No JSON content" );
+            }
+            int depth = 0;
+            do
+            {
+                if ( stopAtException && isException( in, token ) )
+                {
+                    return false;
+                }
+                generator.copyCurrentEvent( in );
+                if ( token.isStructStart() )
+                {
+                    depth++;
+                }
+                else if ( token.isStructEnd() )
+                {
+                    depth--;
+                }
+            }
+            while ( depth > 0 && (token = in.nextToken()) != null );
+            return true;
+        }
+    }
+
+    /*
+     * What a search for "exception", quotes included, would find in the raw document.
+     */
+    private static boolean isException( JsonParser parser, JsonToken token ) throws IOException
+    {
+        return (token == JsonToken.FIELD_NAME || token == JsonToken.VALUE_STRING) && EXCEPTION.equals( parser.getText() );
+    }
+
+    private static String gsonPrettyPrint( final String json ) throws Exception
+    {
+        JsonElement element = GSON_PARSER.parse( json );
+        return GSON.toJson( element );
     }
 }
@@ -18,7 +18,6 @@
  */
 package org.neo4j.doc.server.rest;
 
-import com.sun.jersey.api.client.Client;
 import com.sun.jersey.api.client.ClientRequest;
 import com.sun.jersey.api.client.ClientRequest.Builder;
 import com.sun.jersey.api.client.ClientResponse;
@@ -40,6 +39,7 @@ import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.MultivaluedMap;
 import javax.ws.rs.core.Response;
 
+import org.neo4j.doc.server.SharedHttpClient;
 import org.neo4j.doc.test.TestData.Producer;
 import org.neo4j.doc.tools.AsciiDocGenerator;
 import org.neo4j.function.Predicates;
@@ -373,12 +373,16 @@ public class RESTDocsGenerator extends AsciiDocGenerator
             }
             // data.setPayloadType( contentType );
         }
-        Client client = new Client();
-        ClientResponse response = client.handle( request );
+        ClientResponse response = SharedHttpClient.client().handle( request );
         if ( response.hasEntity() && response.getStatus() != 204 )
         {
             data.setEntity( response.getEntity( String.class ) );
         }
+        else
+        {
+            // Hands the connection back to the pool
+            response.close();
+        }
         if ( response.getType() != null )
         {
             assertTrue("wrong response type: " + data.entity, response.getType().isCompatible( type ) );
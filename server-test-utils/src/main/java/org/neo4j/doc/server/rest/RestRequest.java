@@ -31,11 +31,12 @@ import java.util.Map;
 import javax.ws.rs.core.MediaType;
 
 import org.neo4j.doc.server.HTTP;
+import org.neo4j.doc.server.SharedHttpClient;
 
 public class RestRequest {
 
     private final URI baseUri;
-    private static final Client DEFAULT_CLIENT = Client.create();
+    private static final Client DEFAULT_CLIENT = SharedHttpClient.client();
     private final Client client;
     private MediaType accept = MediaType.APPLICATION_JSON_TYPE;
     private Map<String, String> headers=new HashMap<>();